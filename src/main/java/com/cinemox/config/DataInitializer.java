@@ -6,6 +6,7 @@ import com.cinemox.model.User;
 import com.cinemox.repository.MovieRepository;
 import com.cinemox.repository.ScheduleRepository;
 import com.cinemox.repository.UserRepository;
+import com.cinemox.service.SeatInventoryService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -33,6 +34,9 @@ public class DataInitializer implements CommandLineRunner {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
     @Override
     public void run(String... args) {
         // Create admin user if not exists
@@ -124,6 +128,7 @@ public class DataInitializer implements CommandLineRunner {
                         schedule.setAvailableSeats(50);
                         schedule.setPrice(50000.0);
                         schedule.setActive(true);
+                        seatInventoryService.initialize(schedule);
 
                         scheduleRepository.save(schedule);
                     }
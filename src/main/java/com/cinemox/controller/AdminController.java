@@ -1,20 +1,44 @@
 package com.cinemox.controller;
 
 import com.cinemox.dto.ApiResponse;
+import com.cinemox.event.MovieChangedEvent;
+import com.cinemox.event.ScheduleChangedEvent;
 import com.cinemox.model.Booking;
 import com.cinemox.model.Movie;
 import com.cinemox.model.Schedule;
+import com.cinemox.model.ScheduleTemplate;
+import com.cinemox.model.TheaterLayout;
 import com.cinemox.model.User;
 import com.cinemox.repository.BookingRepository;
 import com.cinemox.repository.MovieRepository;
 import com.cinemox.repository.ScheduleRepository;
 import com.cinemox.repository.UserRepository;
+import com.cinemox.service.BookingSequencer;
+import com.cinemox.service.MovieRatingService;
+import com.cinemox.service.OutboxService;
+import com.cinemox.service.ReviewService;
+import com.cinemox.service.ScheduleConflictService;
+import com.cinemox.service.ScheduleRepairService;
+import com.cinemox.service.ScheduleTemplateService;
+import com.cinemox.service.SeatFeedService;
+import com.cinemox.service.SeatInventoryService;
+import com.cinemox.service.TheaterLayoutService;
+import com.cinemox.service.WaitingRoomService;
+import com.mongodb.client.result.UpdateResult;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
@@ -41,6 +65,45 @@ public class AdminController {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
+    @Autowired
+    private TheaterLayoutService theaterLayoutService;
+
+    @Autowired
+    private ScheduleRepairService scheduleRepairService;
+
+    @Autowired
+    private MovieRatingService movieRatingService;
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private SeatFeedService seatFeedService;
+
+    @Autowired
+    private ScheduleConflictService scheduleConflictService;
+
+    @Autowired
+    private ScheduleTemplateService scheduleTemplateService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private BookingSequencer bookingSequencer;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private WaitingRoomService waitingRoomService;
+
     // User Management
     @GetMapping("/users")
     public ResponseEntity<ApiResponse> getAllUsers() {
@@ -87,6 +150,7 @@ public class AdminController {
     @PostMapping("/movies")
     public ResponseEntity<ApiResponse> createMovie(@RequestBody Movie movie) {
         Movie savedMovie = movieRepository.save(movie);
+        eventPublisher.publishEvent(new MovieChangedEvent(savedMovie.getId()));
         return ResponseEntity.ok(new ApiResponse(true, "Movie created successfully", savedMovie));
     }
 
@@ -95,17 +159,32 @@ public class AdminController {
         Movie existingMovie = movieRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Movie not found"));
 
-        movie.setId(id);
-        movie.setCreatedAt(existingMovie.getCreatedAt());
-        movie.setUpdatedAt(LocalDateTime.now());
-
-        Movie updatedMovie = movieRepository.save(movie);
+        // Review aggregates are kept by MovieRatingService, so only the editable fields are written
+        Update update = new Update()
+                .set("title", movie.getTitle())
+                .set("description", movie.getDescription())
+                .set("genre", movie.getGenre())
+                .set("duration", movie.getDuration())
+                .set("director", movie.getDirector())
+                .set("cast", movie.getCast())
+                .set("posterUrl", movie.getPosterUrl())
+                .set("trailerUrl", movie.getTrailerUrl())
+                .set("rating", movie.getRating())
+                .set("imdbRating", movie.getImdbRating())
+                .set("releaseDate", movie.getReleaseDate())
+                .set("nowShowing", movie.isNowShowing())
+                .set("comingSoon", movie.isComingSoon())
+                .set("updatedAt", LocalDateTime.now());
+        Movie updatedMovie = mongoTemplate.findAndModify(new Query(Criteria.where("_id").is(existingMovie.getId())),
+                update, FindAndModifyOptions.options().returnNew(true), Movie.class);
+        eventPublisher.publishEvent(new MovieChangedEvent(id));
         return ResponseEntity.ok(new ApiResponse(true, "Movie updated successfully", updatedMovie));
     }
 
     @DeleteMapping("/movies/{id}")
     public ResponseEntity<ApiResponse> deleteMovie(@PathVariable String id) {
         movieRepository.deleteById(id);
+        eventPublisher.publishEvent(new MovieChangedEvent(id));
         return ResponseEntity.ok(new ApiResponse(true, "Movie deleted successfully", null));
     }
 
@@ -117,10 +196,18 @@ public class AdminController {
     }
 
     @PostMapping("/schedules")
-    public ResponseEntity<ApiResponse> createSchedule(@RequestBody Schedule schedule) {
+    public ResponseEntity<ApiResponse> createSchedule(
+            @RequestBody Schedule schedule,
+            @RequestParam(defaultValue = "false") boolean force) {
         Movie movie = movieRepository.findById(schedule.getMovieId())
                 .orElseThrow(() -> new RuntimeException("Movie not found"));
 
+        List<ScheduleConflictService.Slot> conflicts = scheduleConflictService.findConflicts(schedule, movie);
+        if (!conflicts.isEmpty() && !force) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ApiResponse(false, conflictMessage(conflicts), conflicts));
+        }
+
         // Enrich schedule so it shows up correctly in admin and booking flows
         schedule.setMovieId(movie.getId());
         schedule.setMovieTitle(movie.getTitle());
@@ -129,52 +216,160 @@ public class AdminController {
             schedule.setTotalSeats(50);
         }
 
+        // A stored layout for the theater decides the seat count
+        theaterLayoutService.applyLayout(schedule);
         schedule.setAvailableSeats(schedule.getTotalSeats());
 
-        if (schedule.getBookedSeats() == null) {
-            schedule.setBookedSeats(new java.util.ArrayList<>());
-        }
+        seatInventoryService.initialize(schedule);
 
         Schedule savedSchedule = scheduleRepository.save(schedule);
+        eventPublisher.publishEvent(new ScheduleChangedEvent(savedSchedule.getId(), savedSchedule.getShowDate()));
         return ResponseEntity.ok(new ApiResponse(true, "Schedule created successfully", savedSchedule));
     }
 
     @PutMapping("/schedules/{id}")
-    public ResponseEntity<ApiResponse> updateSchedule(@PathVariable String id, @RequestBody Schedule schedule) {
+    public ResponseEntity<ApiResponse> updateSchedule(
+            @PathVariable String id,
+            @RequestBody Schedule schedule,
+            @RequestParam(defaultValue = "false") boolean force) {
         Schedule existing = scheduleRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Schedule not found"));
 
         Movie movie = movieRepository.findById(schedule.getMovieId())
                 .orElseThrow(() -> new RuntimeException("Movie not found"));
 
-        existing.setMovieId(movie.getId());
-        existing.setMovieTitle(movie.getTitle());
-        existing.setShowDate(schedule.getShowDate());
-        existing.setShowTime(schedule.getShowTime());
-        existing.setTheater(schedule.getTheater());
-        existing.setPrice(schedule.getPrice());
-        existing.setTotalSeats(schedule.getTotalSeats());
-
-        // Recalculate available seats based on booked seats already stored
-        if (existing.getBookedSeats() == null) {
-            existing.setBookedSeats(new java.util.ArrayList<>());
+        schedule.setId(id);
+        List<ScheduleConflictService.Slot> conflicts = scheduleConflictService.findConflicts(schedule, movie);
+        if (!conflicts.isEmpty() && !force && schedule.isActive()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ApiResponse(false, conflictMessage(conflicts), conflicts));
         }
-        int bookedCount = existing.getBookedSeats().size();
-        int totalSeats = existing.getTotalSeats() != null ? existing.getTotalSeats() : 50;
-        existing.setAvailableSeats(Math.max(0, totalSeats - bookedCount));
-
-        existing.setActive(schedule.isActive());
 
-        Schedule updatedSchedule = scheduleRepository.save(existing);
+        // Only the editable fields are written; seats claimed meanwhile must not be overwritten
+        LocalDate previousShowDate = existing.getShowDate();
+        Update update = new Update()
+                .set("movieId", movie.getId())
+                .set("movieTitle", movie.getTitle())
+                .set("showDate", schedule.getShowDate())
+                .set("showTime", schedule.getShowTime())
+                .set("theater", schedule.getTheater())
+                .set("price", schedule.getPrice())
+                .set("active", schedule.isActive());
+        Schedule updatedSchedule = seatInventoryService.updateDetails(
+                existing, schedule.getTheater(), schedule.getTotalSeats(), update);
+        eventPublisher.publishEvent(new ScheduleChangedEvent(id, updatedSchedule.getShowDate()));
+        if (previousShowDate != null && !previousShowDate.equals(updatedSchedule.getShowDate())) {
+            eventPublisher.publishEvent(new ScheduleChangedEvent(id, previousShowDate));
+        }
         return ResponseEntity.ok(new ApiResponse(true, "Schedule updated successfully", updatedSchedule));
     }
 
+    private String conflictMessage(List<ScheduleConflictService.Slot> conflicts) {
+        ScheduleConflictService.Slot first = conflicts.get(0);
+        return first.theater() + " is already in use by " + first.movieTitle()
+                + " from " + first.start().toLocalTime() + " to " + first.end().toLocalTime()
+                + " (use force=true to save anyway)";
+    }
+
+    @PostMapping("/schedules/validate")
+    public ResponseEntity<ApiResponse> validateSchedules(@RequestBody List<Schedule> schedules) {
+        Map<Integer, List<ScheduleConflictService.Slot>> conflicts = scheduleConflictService.validateBatch(schedules);
+        return ResponseEntity.ok(new ApiResponse(conflicts.isEmpty(),
+                conflicts.isEmpty() ? "No conflicts found" : conflicts.size() + " schedules overlap",
+                conflicts));
+    }
+
     @DeleteMapping("/schedules/{id}")
     public ResponseEntity<ApiResponse> deleteSchedule(@PathVariable String id) {
-        scheduleRepository.deleteById(id);
+        scheduleRepository.findById(id).ifPresent(schedule -> {
+            scheduleRepository.deleteById(id);
+            eventPublisher.publishEvent(new ScheduleChangedEvent(id, schedule.getShowDate()));
+        });
         return ResponseEntity.ok(new ApiResponse(true, "Schedule deleted successfully", null));
     }
 
+    // Schedule Templates
+    @GetMapping("/schedule-templates")
+    public ResponseEntity<ApiResponse> getScheduleTemplates() {
+        return ResponseEntity.ok(new ApiResponse(true, "Schedule templates retrieved successfully",
+                scheduleTemplateService.findAll()));
+    }
+
+    @PostMapping("/schedule-templates")
+    public ResponseEntity<ApiResponse> createScheduleTemplate(
+            @RequestBody ScheduleTemplate template,
+            @RequestParam(defaultValue = "false") boolean force) {
+        try {
+            return seriesResponse(scheduleTemplateService.create(template, force), force,
+                    "Schedule template created successfully");
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse(false, e.getMessage(), null));
+        }
+    }
+
+    @PutMapping("/schedule-templates/{id}")
+    public ResponseEntity<ApiResponse> updateScheduleTemplate(
+            @PathVariable String id,
+            @RequestBody ScheduleTemplate template,
+            @RequestParam(defaultValue = "false") boolean force) {
+        try {
+            return seriesResponse(scheduleTemplateService.update(id, template, force), force,
+                    "Schedule template updated successfully");
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse(false, e.getMessage(), null));
+        }
+    }
+
+    @DeleteMapping("/schedule-templates/{id}")
+    public ResponseEntity<ApiResponse> cancelScheduleTemplate(@PathVariable String id) {
+        try {
+            long deactivated = scheduleTemplateService.cancel(id);
+            return ResponseEntity.ok(new ApiResponse(true,
+                    "Schedule template cancelled, " + deactivated + " upcoming schedules deactivated",
+                    Map.of("deactivated", deactivated)));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse(false, e.getMessage(), null));
+        }
+    }
+
+    private ResponseEntity<ApiResponse> seriesResponse(ScheduleTemplateService.SeriesResult result, boolean force,
+            String message) {
+        if (!result.conflicts().isEmpty() && !force) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ApiResponse(false, result.conflicts().size()
+                            + " generated schedules overlap existing ones (use force=true to save anyway)", result));
+        }
+        return ResponseEntity.ok(new ApiResponse(true, message + ", " + result.created() + " schedules generated",
+                result));
+    }
+
+    // Theater Layouts
+    @GetMapping("/theater-layouts")
+    public ResponseEntity<ApiResponse> getTheaterLayouts() {
+        return ResponseEntity.ok(new ApiResponse(true, "Theater layouts retrieved successfully",
+                theaterLayoutService.findAll()));
+    }
+
+    @PutMapping("/theater-layouts")
+    public ResponseEntity<ApiResponse> saveTheaterLayout(@RequestBody TheaterLayout layout) {
+        try {
+            TheaterLayout saved = theaterLayoutService.save(layout);
+            return ResponseEntity.ok(new ApiResponse(true, "Theater layout saved successfully", saved));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse(false, e.getMessage(), null));
+        }
+    }
+
+    @DeleteMapping("/theater-layouts/{id}")
+    public ResponseEntity<ApiResponse> deleteTheaterLayout(@PathVariable String id) {
+        theaterLayoutService.delete(id);
+        return ResponseEntity.ok(new ApiResponse(true, "Theater layout deleted successfully", null));
+    }
+
     // Booking Management
     @GetMapping("/bookings")
     public ResponseEntity<ApiResponse> getAllBookings() {
@@ -182,6 +377,52 @@ public class AdminController {
         return ResponseEntity.ok(new ApiResponse(true, "Bookings retrieved successfully", bookings));
     }
 
+    @PostMapping("/maintenance/schedules/repair")
+    public ResponseEntity<ApiResponse> startScheduleRepair() {
+        boolean started = scheduleRepairService.start();
+        return ResponseEntity.ok(new ApiResponse(started,
+                started ? "Schedule repair started" : "Schedule repair is already running",
+                scheduleRepairService.progress()));
+    }
+
+    @GetMapping("/maintenance/schedules/repair")
+    public ResponseEntity<ApiResponse> getScheduleRepairProgress() {
+        return ResponseEntity.ok(new ApiResponse(true, "Schedule repair progress retrieved successfully",
+                scheduleRepairService.progress()));
+    }
+
+    @PostMapping("/maintenance/ratings/rebuild")
+    public ResponseEntity<ApiResponse> startRatingRebuild() {
+        boolean started = movieRatingService.start();
+        return ResponseEntity.ok(new ApiResponse(started,
+                started ? "Rating rebuild started" : "Rating rebuild is already running",
+                movieRatingService.progress()));
+    }
+
+    @GetMapping("/maintenance/ratings/rebuild")
+    public ResponseEntity<ApiResponse> getRatingRebuildProgress() {
+        return ResponseEntity.ok(new ApiResponse(true, "Rating rebuild progress retrieved successfully",
+                movieRatingService.progress()));
+    }
+
+    @PostMapping("/maintenance/reviews/remove-duplicates")
+    public ResponseEntity<ApiResponse> removeDuplicateReviews() {
+        long removed = reviewService.removeDuplicates();
+        return ResponseEntity.ok(new ApiResponse(true, "Duplicate reviews removed",
+                Map.of("removed", removed)));
+    }
+
+    @PostMapping("/maintenance/bookings/strip-inline-barcodes")
+    public ResponseEntity<ApiResponse> stripInlineBarcodes() {
+        // Older bookings carry a base64 QR; tickets are now rendered from the booking code
+        UpdateResult result = mongoTemplate.updateMulti(
+                new Query(Criteria.where("barcodeUrl").exists(true)),
+                new Update().unset("barcodeUrl"),
+                Booking.class);
+        return ResponseEntity.ok(new ApiResponse(true, "Inline barcodes removed",
+                Map.of("modified", result.getModifiedCount())));
+    }
+
     // Statistics
     @GetMapping("/statistics")
     public ResponseEntity<ApiResponse> getStatistics() {
@@ -228,4 +469,43 @@ public class AdminController {
 
         return ResponseEntity.ok(new ApiResponse(true, "Monthly statistics retrieved successfully", result));
     }
+
+    @GetMapping("/metrics/booking-sequencer")
+    public ResponseEntity<ApiResponse> getBookingSequencerMetrics() {
+        return ResponseEntity.ok(new ApiResponse(true, "Booking sequencer metrics retrieved successfully",
+                bookingSequencer.metrics()));
+    }
+
+    @GetMapping("/metrics/outbox")
+    public ResponseEntity<ApiResponse> getOutboxMetrics() {
+        return ResponseEntity.ok(new ApiResponse(true, "Outbox metrics retrieved successfully",
+                outboxService.stats()));
+    }
+
+    @GetMapping("/metrics/seat-feed")
+    public ResponseEntity<ApiResponse> getSeatFeedMetrics() {
+        return ResponseEntity.ok(new ApiResponse(true, "Seat feed metrics retrieved successfully",
+                seatFeedService.stats()));
+    }
+
+    // Waiting Room
+    @GetMapping("/waiting-room")
+    public ResponseEntity<ApiResponse> getWaitingRooms() {
+        return ResponseEntity.ok(new ApiResponse(true, "Waiting rooms retrieved successfully",
+                waitingRoomService.roomStats()));
+    }
+
+    @PutMapping("/waiting-room/rates")
+    public ResponseEntity<ApiResponse> setWaitingRoomRate(@RequestBody Map<String, Object> body) {
+        String scope = (String) body.get("scope");
+        String id = (String) body.get("id");
+        Number rate = (Number) body.get("ratePerSecond");
+        Number burst = (Number) body.getOrDefault("burst", rate);
+        if (scope == null || id == null || rate == null) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse(false, "scope, id and ratePerSecond are required", null));
+        }
+        waitingRoomService.setRate(scope, id, rate.doubleValue(), burst.doubleValue());
+        return ResponseEntity.ok(new ApiResponse(true, "Waiting room rate updated", body));
+    }
 }
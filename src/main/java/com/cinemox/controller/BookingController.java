@@ -1,16 +1,30 @@
 package com.cinemox.controller;
 
 import com.cinemox.dto.ApiResponse;
+import com.cinemox.dto.BatchBookingRequest;
 import com.cinemox.dto.BookingRequest;
 import com.cinemox.model.Booking;
+import com.cinemox.service.BookingSequencer;
 import com.cinemox.service.BookingService;
+import com.cinemox.service.IdempotencyService;
+import com.cinemox.service.TicketService;
+import com.cinemox.service.WaitingRoomService;
+import com.mongodb.MongoException;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/bookings")
@@ -20,18 +34,150 @@ public class BookingController {
     @Autowired
     private BookingService bookingService;
 
+    @Autowired
+    private BookingSequencer bookingSequencer;
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private WaitingRoomService waitingRoomService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
     @PostMapping
     public ResponseEntity<ApiResponse> createBooking(
             @Valid @RequestBody BookingRequest request,
+            @RequestHeader(value = "X-Admission-Token", required = false) String admissionToken,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             Authentication authentication) {
+        String userEmail = authentication.getName();
+        // Admission is checked inside the idempotent call, so a replay does not need a fresh token
+        if (idempotencyKey != null) {
+            return idempotencyService.execute(userEmail, idempotencyKey, request,
+                    () -> admitAndPlaceBooking(userEmail, request, admissionToken));
+        }
+        return admitAndPlaceBooking(userEmail, request, admissionToken);
+    }
+
+    private ResponseEntity<ApiResponse> admitAndPlaceBooking(String userEmail, BookingRequest request,
+            String admissionToken) {
+        boolean waitingRoom = waitingRoomService.isEnabled();
+        if (waitingRoom && !waitingRoomService.consumeAdmission(request.getScheduleId(), admissionToken, userEmail)) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .body(new ApiResponse(false, "Please join the waiting room for this show", null));
+        }
+        ResponseEntity<ApiResponse> response = placeBooking(userEmail, request);
+        if (waitingRoom && !succeeded(response)) {
+            waitingRoomService.restoreAdmission(request.getScheduleId(), admissionToken, userEmail);
+        }
+        return response;
+    }
+
+    private ResponseEntity<ApiResponse> placeBooking(String userEmail, BookingRequest request) {
         try {
-            String userEmail = authentication.getName();
-            ApiResponse response = bookingService.createBooking(userEmail, request);
-            return ResponseEntity.ok(response);
+            if (bookingSequencer.isEnabled()) {
+                return outcomeResponse(bookingSequencer.submit(userEmail, request));
+            }
+            return ResponseEntity.ok(bookingService.createBooking(userEmail, request));
         } catch (Exception e) {
-            return ResponseEntity.badRequest()
-                    .body(new ApiResponse(false, e.getMessage(), null));
+            return errorResponse(e);
+        }
+    }
+
+    @GetMapping("/requests/{requestId}")
+    public ResponseEntity<ApiResponse> getBookingRequest(@PathVariable String requestId, Authentication authentication) {
+        try {
+            return outcomeResponse(bookingSequencer.poll(authentication.getName(), requestId));
+        } catch (Exception e) {
+            return errorResponse(e);
+        }
+    }
+
+    // A booking still in the sequencer queue is accepted, not failed; the client polls its request id
+    private ResponseEntity<ApiResponse> outcomeResponse(BookingSequencer.Outcome outcome) {
+        if (outcome.isPending()) {
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(new ApiResponse(true, "Booking is still being processed",
+                            Map.of("requestId", outcome.requestId(), "status", "PENDING")));
         }
+        return ResponseEntity.ok(outcome.response());
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<ApiResponse> createBatchBooking(
+            @Valid @RequestBody BatchBookingRequest request,
+            @RequestHeader(value = "X-Admission-Token", required = false) String admissionTokens,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            Authentication authentication) {
+        String userEmail = authentication.getName();
+        if (idempotencyKey != null) {
+            return idempotencyService.execute(userEmail, idempotencyKey, request,
+                    () -> admitAndPlaceBatchBooking(userEmail, request, admissionTokens));
+        }
+        return admitAndPlaceBatchBooking(userEmail, request, admissionTokens);
+    }
+
+    private ResponseEntity<ApiResponse> admitAndPlaceBatchBooking(String userEmail, BatchBookingRequest request,
+            String admissionTokens) {
+        if (!waitingRoomService.isEnabled()) {
+            return placeBatchBooking(userEmail, request);
+        }
+
+        // One admission token per show in the batch, comma separated
+        List<String> tokens = admissionTokens != null
+                ? List.of(admissionTokens.split("\\s*,\\s*"))
+                : List.of();
+        Map<String, String> consumed = new LinkedHashMap<>();
+        for (BookingRequest item : request.getBookings()) {
+            String scheduleId = item.getScheduleId();
+            if (consumed.containsKey(scheduleId)) {
+                continue;
+            }
+            String token = tokens.stream()
+                    .filter(candidate -> waitingRoomService.consumeAdmission(scheduleId, candidate, userEmail))
+                    .findFirst()
+                    .orElse(null);
+            if (token == null) {
+                consumed.forEach((id, used) -> waitingRoomService.restoreAdmission(id, used, userEmail));
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .body(new ApiResponse(false,
+                                "Please join the waiting room for every show in the batch", null));
+            }
+            consumed.put(scheduleId, token);
+        }
+
+        ResponseEntity<ApiResponse> response = placeBatchBooking(userEmail, request);
+        if (!succeeded(response)) {
+            consumed.forEach((id, used) -> waitingRoomService.restoreAdmission(id, used, userEmail));
+        }
+        return response;
+    }
+
+    private ResponseEntity<ApiResponse> placeBatchBooking(String userEmail, BatchBookingRequest request) {
+        try {
+            return ResponseEntity.ok(bookingService.createBatchBooking(userEmail, request));
+        } catch (Exception e) {
+            return errorResponse(e);
+        }
+    }
+
+    // Seat conflicts come back as 200 with success=false; they must give the admission back as well
+    private boolean succeeded(ResponseEntity<ApiResponse> response) {
+        return response.getStatusCode().is2xxSuccessful()
+                && response.getBody() != null && response.getBody().isSuccess();
+    }
+
+    // Database failures and a full queue are worth retrying; they must not be stored as a final 400 for the key
+    private ResponseEntity<ApiResponse> errorResponse(Exception e) {
+        if (e instanceof DataAccessException || e instanceof MongoException
+                || e instanceof RejectedExecutionException) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(new ApiResponse(false, "Booking is temporarily unavailable, please try again", null));
+        }
+        return ResponseEntity.badRequest()
+                .body(new ApiResponse(false, e.getMessage(), null));
     }
 
     @GetMapping("/my-bookings")
@@ -51,4 +197,37 @@ public class BookingController {
                     .body(new ApiResponse(false, e.getMessage(), null));
         }
     }
+
+    @GetMapping("/{bookingCode}/qr.png")
+    public ResponseEntity<byte[]> getTicketQr(
+            @PathVariable String bookingCode,
+            WebRequest request,
+            Authentication authentication) {
+        TicketService.RenderedTicket ticket;
+        try {
+            ticket = ticketService.renderQr(bookingCode);
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+        // The QR is a valid admission token, so only its owner (or an admin) may see it
+        boolean admin = authentication.getAuthorities().stream()
+                .anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
+        if (!admin && !authentication.getName().equals(ticket.userEmail())) {
+            return ResponseEntity.notFound().build();
+        }
+
+        // A booking's ticket never changes, so browsers may keep it for good
+        String cacheControl = "private, max-age=31536000, immutable";
+        if (request.checkNotModified(ticket.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(ticket.etag())
+                    .header(HttpHeaders.CACHE_CONTROL, cacheControl)
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.IMAGE_PNG)
+                .eTag(ticket.etag())
+                .header(HttpHeaders.CACHE_CONTROL, cacheControl)
+                .body(ticket.png());
+    }
 }
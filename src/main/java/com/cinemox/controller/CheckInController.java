@@ -0,0 +1,58 @@
+package com.cinemox.controller;
+
+import com.cinemox.dto.ApiResponse;
+import com.cinemox.service.CheckInService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/checkin")
+@CrossOrigin(origins = "*")
+@PreAuthorize("hasRole('ADMIN')")
+public class CheckInController {
+
+    @Autowired
+    private CheckInService checkInService;
+
+    @PostMapping
+    public ResponseEntity<ApiResponse> checkIn(@RequestBody Map<String, String> body) {
+        try {
+            ApiResponse response;
+            if (body.get("token") != null) {
+                response = checkInService.checkInToken(body.get("token"));
+            } else if (body.get("bookingCode") != null && body.get("scheduleId") != null) {
+                response = checkInService.checkInCode(body.get("scheduleId"), body.get("bookingCode"));
+            } else {
+                return ResponseEntity.badRequest()
+                        .body(new ApiResponse(false, "Ticket token or booking code and schedule ID is required", null));
+            }
+
+            if (!response.isSuccess()) {
+                // Only a repeat scan carries the earlier admission; a ticket the show does not know is not found
+                HttpStatus status = response.getData() != null ? HttpStatus.CONFLICT : HttpStatus.NOT_FOUND;
+                return ResponseEntity.status(status).body(response);
+            }
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse(false, e.getMessage(), null));
+        }
+    }
+
+    @PostMapping("/schedules/{scheduleId}/preload")
+    public ResponseEntity<ApiResponse> preloadSchedule(@PathVariable String scheduleId) {
+        return ResponseEntity.ok(new ApiResponse(true, "Show loaded for check-in",
+                checkInService.preload(scheduleId)));
+    }
+
+    @GetMapping("/schedules/{scheduleId}/stats")
+    public ResponseEntity<ApiResponse> getScheduleStats(@PathVariable String scheduleId) {
+        return ResponseEntity.ok(new ApiResponse(true, "Check-in statistics retrieved successfully",
+                checkInService.stats(scheduleId)));
+    }
+}
@@ -0,0 +1,80 @@
+package com.cinemox.controller;
+
+import com.cinemox.service.PosterService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.nio.file.Files;
+
+@RestController
+@RequestMapping("/img")
+@CrossOrigin(origins = "*")
+public class ImageController {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    @Autowired
+    private PosterService posterService;
+
+    /**
+     * Resized poster. With v set to the hash from a previous response's ETag
+     * the URL names one exact image and may be cached forever; without it the
+     * image can change when the movie's poster does, so caches revalidate.
+     */
+    @GetMapping("/poster/{movieId}")
+    public ResponseEntity<Resource> getPoster(
+            @PathVariable String movieId,
+            @RequestParam(defaultValue = "320") int w,
+            @RequestParam(required = false) String v,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            WebRequest webRequest,
+            HttpServletRequest request) {
+        PosterService.Variant variant;
+        long length;
+        try {
+            variant = posterService.poster(movieId, w, accept != null && accept.contains("image/webp"));
+            length = Files.size(variant.file());
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+
+        String etag = "\"" + variant.hash() + "-" + variant.file().getFileName() + "\"";
+        String cacheControl = variant.hash().equals(v)
+                ? "public, max-age=31536000, immutable"
+                : "public, max-age=300";
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .header(HttpHeaders.CACHE_CONTROL, cacheControl)
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+                    .build();
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(variant.contentType()))
+                .contentLength(length)
+                .eTag(etag)
+                .header(HttpHeaders.CACHE_CONTROL, cacheControl)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+
+        // Let Tomcat hand the file to the socket with sendfile instead of copying it through the heap
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, variant.file().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, length);
+            return response.build();
+        }
+        return response.body(new FileSystemResource(variant.file()));
+    }
+}
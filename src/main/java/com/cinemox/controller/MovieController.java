@@ -3,11 +3,22 @@ package com.cinemox.controller;
 import com.cinemox.dto.ApiResponse;
 import com.cinemox.model.Movie;
 import com.cinemox.repository.MovieRepository;
+import com.cinemox.service.MovieCatalogService;
+import com.cinemox.service.MovieFacetService;
+import com.cinemox.service.MovieListService;
+import com.cinemox.service.MovieSearchService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/movies")
@@ -17,22 +28,93 @@ public class MovieController {
     @Autowired
     private MovieRepository movieRepository;
 
+    @Autowired
+    private MovieSearchService movieSearchService;
+
+    @Autowired
+    private MovieCatalogService movieCatalogService;
+
+    @Autowired
+    private MovieListService movieListService;
+
+    @Autowired
+    private MovieFacetService movieFacetService;
+
     @GetMapping
-    public ResponseEntity<ApiResponse> getAllMovies() {
-        List<Movie> movies = movieRepository.findAll();
-        return ResponseEntity.ok(new ApiResponse(true, "Movies retrieved successfully", movies));
+    public ResponseEntity<?> getAllMovies(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String fields,
+            WebRequest request) {
+        return listResponse(MovieCatalogService.ALL, limit, cursor, fields, request);
     }
 
     @GetMapping("/now-showing")
-    public ResponseEntity<ApiResponse> getNowShowingMovies() {
-        List<Movie> movies = movieRepository.findByNowShowingTrue();
-        return ResponseEntity.ok(new ApiResponse(true, "Now showing movies retrieved successfully", movies));
+    public ResponseEntity<?> getNowShowingMovies(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String fields,
+            WebRequest request) {
+        return listResponse(MovieCatalogService.NOW_SHOWING, limit, cursor, fields, request);
     }
 
     @GetMapping("/coming-soon")
-    public ResponseEntity<ApiResponse> getComingSoonMovies() {
-        List<Movie> movies = movieRepository.findByComingSoonTrue();
-        return ResponseEntity.ok(new ApiResponse(true, "Coming soon movies retrieved successfully", movies));
+    public ResponseEntity<?> getComingSoonMovies(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String fields,
+            WebRequest request) {
+        return listResponse(MovieCatalogService.COMING_SOON, limit, cursor, fields, request);
+    }
+
+    private ResponseEntity<?> listResponse(String view, Integer limit, String cursor, String fields,
+            WebRequest request) {
+        // Without paging parameters the full list is served as before
+        if (limit == null && cursor == null && fields == null) {
+            return catalogResponse(view, request);
+        }
+        try {
+            Map<String, Object> page = movieListService.page(view, cursor, limit != null ? limit : 20, fields);
+            return ResponseEntity.ok(new ApiResponse(true, "Movies retrieved successfully", page));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse(false, e.getMessage(), null));
+        }
+    }
+
+    private ResponseEntity<byte[]> catalogResponse(String view, WebRequest request) {
+        MovieCatalogService.CatalogView catalog = movieCatalogService.view(view);
+        // Clients may keep the list but must revalidate it; unchanged lists cost a 304
+        if (request.checkNotModified(catalog.etag(), catalog.lastModified().toEpochMilli())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(catalog.etag())
+                    .lastModified(catalog.lastModified())
+                    .cacheControl(CacheControl.noCache())
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(catalog.etag())
+                .lastModified(catalog.lastModified())
+                .cacheControl(CacheControl.noCache())
+                .body(catalog.body());
+    }
+
+    @GetMapping("/browse")
+    public ResponseEntity<ApiResponse> browseMovies(
+            @RequestParam(required = false) List<String> genre,
+            @RequestParam(required = false) List<String> rating,
+            @RequestParam(required = false) List<String> status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate releasedFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate releasedTo,
+            @RequestParam(required = false) Double minRating,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(defaultValue = "24") int limit) {
+        MovieFacetService.BrowseQuery query = new MovieFacetService.BrowseQuery(
+                genre, rating, status, releasedFrom, releasedTo, minRating);
+        MovieFacetService.BrowseResult result =
+                movieFacetService.browse(query, offset, Math.min(Math.max(limit, 1), 100));
+        return ResponseEntity.ok(new ApiResponse(true, "Movies retrieved successfully", result));
     }
 
     @GetMapping("/{id}")
@@ -43,8 +125,19 @@ public class MovieController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<ApiResponse> searchMovies(@RequestParam String query) {
-        List<Movie> movies = movieRepository.findByTitleContainingIgnoreCase(query);
+    public ResponseEntity<ApiResponse> searchMovies(
+            @RequestParam String query,
+            @RequestParam(defaultValue = "50") int limit) {
+        List<Movie> movies = movieSearchService.search(query, Math.min(Math.max(limit, 1), 100));
         return ResponseEntity.ok(new ApiResponse(true, "Search results retrieved successfully", movies));
     }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<ApiResponse> suggestMovies(
+            @RequestParam String query,
+            @RequestParam(defaultValue = "8") int limit) {
+        List<MovieSearchService.Suggestion> suggestions =
+                movieSearchService.suggest(query, Math.min(Math.max(limit, 1), 20));
+        return ResponseEntity.ok(new ApiResponse(true, "Suggestions retrieved successfully", suggestions));
+    }
 }
@@ -1,16 +1,19 @@
 package com.cinemox.controller;
 
+import com.cinemox.model.Movie;
 import com.cinemox.model.Review;
 import com.cinemox.model.User;
+import com.cinemox.repository.MovieRepository;
 import com.cinemox.repository.ReviewRepository;
 import com.cinemox.repository.UserRepository;
+import com.cinemox.service.MovieRatingService;
+import com.cinemox.service.ReviewService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -24,6 +27,15 @@ public class ReviewController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private MovieRatingService movieRatingService;
+
+    @Autowired
+    private ReviewService reviewService;
+
     @PostMapping
     public ResponseEntity<?> createReview(@RequestBody Review review, Authentication authentication) {
         try {
@@ -48,10 +60,13 @@ public class ReviewController {
                         .body(Map.of("message", "Comment cannot be empty"));
             }
 
-            review.setUserId(user.getId());
-            review.setUserName(user.getFullName());
+            if (review.getMovieId() == null || !movieRepository.existsById(review.getMovieId())) {
+                return ResponseEntity.badRequest()
+                        .body(Map.of("message", "Movie not found"));
+            }
 
-            Review savedReview = reviewRepository.save(review);
+            // A second review of the same movie replaces the first
+            Review savedReview = reviewService.upsert(review, user);
             return ResponseEntity.ok(savedReview);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -60,29 +75,28 @@ public class ReviewController {
     }
 
     @GetMapping("/movie/{movieId}")
-    public ResponseEntity<List<Review>> getMovieReviews(@PathVariable String movieId) {
-        List<Review> reviews = reviewRepository.findByMovieIdOrderByCreatedAtDesc(movieId);
-        return ResponseEntity.ok(reviews);
+    public ResponseEntity<?> getMovieReviews(
+            @PathVariable String movieId,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String cursor) {
+        try {
+            return ResponseEntity.ok(reviewService.page(movieId, cursor, limit));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("message", e.getMessage()));
+        }
     }
 
     @GetMapping("/movie/{movieId}/stats")
     public ResponseEntity<?> getMovieReviewStats(@PathVariable String movieId) {
-        List<Review> reviews = reviewRepository.findByMovieIdOrderByCreatedAtDesc(movieId);
-
-        if (reviews.isEmpty()) {
+        // Aggregates are kept on the movie by MovieRatingService
+        Movie movie = movieRepository.findById(movieId).orElse(null);
+        if (movie == null) {
             return ResponseEntity.ok(Map.of(
                     "averageRating", 0,
                     "totalReviews", 0));
         }
-
-        double averageRating = reviews.stream()
-                .mapToInt(Review::getRating)
-                .average()
-                .orElse(0.0);
-
-        return ResponseEntity.ok(Map.of(
-                "averageRating", Math.round(averageRating * 10.0) / 10.0,
-                "totalReviews", reviews.size()));
+        return ResponseEntity.ok(movieRatingService.stats(movie));
     }
 
     @DeleteMapping("/{id}")
@@ -106,7 +120,9 @@ public class ReviewController {
                         .body(Map.of("message", "You can only delete your own reviews"));
             }
 
-            reviewRepository.deleteById(id);
+            if (!reviewService.delete(id)) {
+                throw new RuntimeException("Review not found");
+            }
             return ResponseEntity.ok(Map.of("message", "Review deleted successfully"));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -4,14 +4,24 @@ import com.cinemox.dto.ApiResponse;
 import com.cinemox.model.Schedule;
 import com.cinemox.repository.MovieRepository;
 import com.cinemox.repository.ScheduleRepository;
+import com.cinemox.service.SeatFeedService;
+import com.cinemox.service.SeatInventoryService;
+import com.cinemox.service.TheaterLayoutService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/schedules")
@@ -24,62 +34,105 @@ public class ScheduleController {
     @Autowired
     private MovieRepository movieRepository;
 
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
+    @Autowired
+    private TheaterLayoutService theaterLayoutService;
+
+    @Autowired
+    private SeatFeedService seatFeedService;
+
     @GetMapping("/movie/{movieId}")
     public ResponseEntity<ApiResponse> getSchedulesByMovie(@PathVariable String movieId) {
-        List<Schedule> schedules = scheduleRepository.findByMovieIdAndActiveTrue(movieId)
-                .stream()
-                .map(this::normalizeSchedule)
-                .toList();
+        List<Schedule> schedules = present(scheduleRepository.findByMovieIdAndActiveTrue(movieId));
         return ResponseEntity.ok(new ApiResponse(true, "Schedules retrieved successfully", schedules));
     }
 
     @GetMapping("/date/{date}")
     public ResponseEntity<ApiResponse> getSchedulesByDate(
             @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
-        List<Schedule> schedules = scheduleRepository.findByShowDateAndActiveTrue(date)
-            .stream()
-            .map(this::normalizeSchedule)
-            .toList();
+        List<Schedule> schedules = present(scheduleRepository.findByShowDateAndActiveTrue(date));
         return ResponseEntity.ok(new ApiResponse(true, "Schedules retrieved successfully", schedules));
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse> getScheduleById(@PathVariable String id) {
         Schedule schedule = scheduleRepository.findById(id)
-                .map(this::normalizeSchedule)
                 .orElseThrow(() -> new RuntimeException("Schedule not found"));
+        present(List.of(schedule));
         return ResponseEntity.ok(new ApiResponse(true, "Schedule retrieved successfully", schedule));
     }
 
-    private Schedule normalizeSchedule(Schedule schedule) {
-        boolean updated = false;
+    @GetMapping("/{id}/layout")
+    public ResponseEntity<ApiResponse> getScheduleLayout(@PathVariable String id) {
+        Schedule schedule = scheduleRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Schedule not found"));
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("layout", theaterLayoutService.layoutFor(schedule));
+        data.put("bookedSeats", seatInventoryService.bookedSeatLabels(schedule));
+        data.put("heldSeats", schedule.getHeldSeats());
+        return ResponseEntity.ok(new ApiResponse(true, "Layout retrieved successfully", data));
+    }
+
+    @GetMapping(value = "/{id}/seats/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamSeats(@PathVariable String id) {
+        return seatFeedService.subscribe(id);
+    }
 
-        if (schedule.getBookedSeats() == null) {
-            schedule.setBookedSeats(new ArrayList<>());
-            updated = true;
+    @GetMapping("/{id}/best-seats")
+    public ResponseEntity<ApiResponse> getBestSeats(
+            @PathVariable String id,
+            @RequestParam int count,
+            @RequestParam(required = false) String seatClass) {
+        Schedule schedule = scheduleRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Schedule not found"));
+
+        List<String> seats = theaterLayoutService.bestAvailable(
+                schedule, seatInventoryService.bookedSeatLabels(schedule), count, seatClass);
+        if (seats.isEmpty()) {
+            return ResponseEntity.ok(new ApiResponse(false, "No " + count + " adjacent seats available", null));
         }
+        return ResponseEntity.ok(new ApiResponse(true, "Best seats found", seats));
+    }
 
-        if (schedule.getMovieTitle() == null || schedule.getMovieTitle().isBlank()) {
-            movieRepository.findById(schedule.getMovieId()).ifPresent(movie -> {
-                schedule.setMovieTitle(movie.getTitle());
-            });
-            updated = true;
+    /**
+     * Fills in derived fields for the response only; stored documents are
+     * repaired by ScheduleRepairService, never from a GET.
+     */
+    private List<Schedule> present(List<Schedule> schedules) {
+        // One lookup for all missing movie titles instead of one per schedule
+        Set<String> movieIds = schedules.stream()
+                .filter(schedule -> schedule.getMovieTitle() == null || schedule.getMovieTitle().isBlank())
+                .map(Schedule::getMovieId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<String, String> titles = new HashMap<>();
+        if (!movieIds.isEmpty()) {
+            movieRepository.findAllById(movieIds).forEach(movie -> titles.put(movie.getId(), movie.getTitle()));
         }
 
-        if (schedule.getTotalSeats() != null) {
-            int bookedCount = schedule.getBookedSeats().size();
-            int totalSeats = schedule.getTotalSeats();
-            int available = Math.max(0, totalSeats - bookedCount);
-            if (schedule.getAvailableSeats() == null || !schedule.getAvailableSeats().equals(available)) {
-                schedule.setAvailableSeats(available);
-                updated = true;
+        for (Schedule schedule : schedules) {
+            if (schedule.getBookedSeats() == null) {
+                schedule.setBookedSeats(new ArrayList<>());
             }
-        }
 
-        if (updated) {
-            scheduleRepository.save(schedule);
-        }
+            if (schedule.getMovieTitle() == null || schedule.getMovieTitle().isBlank()) {
+                schedule.setMovieTitle(titles.get(schedule.getMovieId()));
+            }
+
+            if (schedule.getTotalSeats() != null) {
+                int bookedCount = seatInventoryService.bookedSeatCount(schedule);
+                schedule.setAvailableSeats(Math.max(0, schedule.getTotalSeats() - bookedCount));
+            }
 
-        return schedule;
+            // Bitmap schedules are decoded to seat labels only for the response
+            if (seatInventoryService.isBitset(schedule)) {
+                schedule.setBookedSeats(seatInventoryService.bookedSeatLabels(schedule));
+                schedule.setSeatBitmap(null);
+            }
+        }
+        return schedules;
     }
 }
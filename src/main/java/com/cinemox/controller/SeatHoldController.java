@@ -0,0 +1,90 @@
+package com.cinemox.controller;
+
+import com.cinemox.dto.ApiResponse;
+import com.cinemox.dto.SeatHoldRequest;
+import com.cinemox.service.SeatHoldService;
+import com.cinemox.service.WaitingRoomService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/holds")
+@CrossOrigin(origins = "*")
+public class SeatHoldController {
+
+    @Autowired
+    private SeatHoldService seatHoldService;
+
+    @Autowired
+    private WaitingRoomService waitingRoomService;
+
+    @PostMapping
+    public ResponseEntity<ApiResponse> holdSeats(
+            @Valid @RequestBody SeatHoldRequest request,
+            @RequestHeader(value = "X-Admission-Token", required = false) String admissionToken,
+            Authentication authentication) {
+        String userEmail = authentication.getName();
+        if (waitingRoomService.isEnabled()
+                && !waitingRoomService.consumeAdmission(request.getScheduleId(), admissionToken, userEmail)) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .body(new ApiResponse(false, "Please join the waiting room for this show", null));
+        }
+        try {
+            ApiResponse response = seatHoldService.hold(userEmail, request);
+            if (!response.isSuccess() && waitingRoomService.isEnabled()) {
+                waitingRoomService.restoreAdmission(request.getScheduleId(), admissionToken, userEmail);
+            }
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            if (waitingRoomService.isEnabled()) {
+                waitingRoomService.restoreAdmission(request.getScheduleId(), admissionToken, userEmail);
+            }
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse(false, e.getMessage(), null));
+        }
+    }
+
+    @PutMapping("/{id}/extend")
+    public ResponseEntity<ApiResponse> extendHold(@PathVariable String id, Authentication authentication) {
+        try {
+            return ResponseEntity.ok(seatHoldService.extend(authentication.getName(), id));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse(false, e.getMessage(), null));
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<ApiResponse> releaseHold(@PathVariable String id, Authentication authentication) {
+        try {
+            return ResponseEntity.ok(seatHoldService.release(authentication.getName(), id));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse(false, e.getMessage(), null));
+        }
+    }
+
+    @PostMapping("/{id}/confirm")
+    public ResponseEntity<ApiResponse> confirmHold(
+            @PathVariable String id,
+            @RequestBody Map<String, Double> body,
+            Authentication authentication) {
+        try {
+            Double totalPrice = body.get("totalPrice");
+            if (totalPrice == null) {
+                return ResponseEntity.badRequest()
+                        .body(new ApiResponse(false, "Total price is required", null));
+            }
+            return ResponseEntity.ok(seatHoldService.confirm(authentication.getName(), id, totalPrice));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse(false, e.getMessage(), null));
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.cinemox.controller;
+
+import com.cinemox.dto.ApiResponse;
+import com.cinemox.service.ShowtimeService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/showtimes")
+@CrossOrigin(origins = "*")
+public class ShowtimeController {
+
+    @Autowired
+    private ShowtimeService showtimeService;
+
+    @GetMapping
+    public ResponseEntity<ApiResponse> getShowtimes(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        List<ShowtimeService.MovieShowtimes> showtimes =
+                showtimeService.showtimesOn(date != null ? date : LocalDate.now());
+        return ResponseEntity.ok(new ApiResponse(true, "Showtimes retrieved successfully", showtimes));
+    }
+}
@@ -0,0 +1,36 @@
+package com.cinemox.controller;
+
+import com.cinemox.dto.ApiResponse;
+import com.cinemox.service.TicketService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/tickets")
+@CrossOrigin(origins = "*")
+public class TicketController {
+
+    @Autowired
+    private TicketService ticketService;
+
+    @PostMapping("/verify")
+    public ResponseEntity<ApiResponse> verifyTicket(@RequestBody Map<String, String> body) {
+        return verify(body.get("token"));
+    }
+
+    @GetMapping("/verify")
+    public ResponseEntity<ApiResponse> verifyTicketByQuery(@RequestParam String token) {
+        return verify(token);
+    }
+
+    private ResponseEntity<ApiResponse> verify(String token) {
+        try {
+            return ResponseEntity.ok(new ApiResponse(true, "Ticket is valid", ticketService.verify(token)));
+        } catch (Exception e) {
+            return ResponseEntity.ok(new ApiResponse(false, e.getMessage(), null));
+        }
+    }
+}
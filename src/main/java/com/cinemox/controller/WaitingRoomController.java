@@ -0,0 +1,46 @@
+package com.cinemox.controller;
+
+import com.cinemox.dto.ApiResponse;
+import com.cinemox.service.WaitingRoomService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/waiting-room")
+@CrossOrigin(origins = "*")
+public class WaitingRoomController {
+
+    @Autowired
+    private WaitingRoomService waitingRoomService;
+
+    @PostMapping("/schedules/{scheduleId}/join")
+    public ResponseEntity<ApiResponse> join(@PathVariable String scheduleId, Authentication authentication) {
+        try {
+            return ResponseEntity.ok(new ApiResponse(true, "Joined waiting room",
+                    waitingRoomService.join(scheduleId, authentication.getName())));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse(false, e.getMessage(), null));
+        }
+    }
+
+    @GetMapping("/schedules/{scheduleId}/status")
+    public ResponseEntity<ApiResponse> status(@PathVariable String scheduleId, @RequestParam String ticket) {
+        try {
+            return ResponseEntity.ok(new ApiResponse(true, "Waiting room status retrieved successfully",
+                    waitingRoomService.status(scheduleId, ticket)));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse(false, e.getMessage(), null));
+        }
+    }
+
+    @GetMapping(value = "/schedules/{scheduleId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(@PathVariable String scheduleId, @RequestParam String ticket) {
+        return waitingRoomService.subscribe(scheduleId, ticket);
+    }
+}
@@ -0,0 +1,14 @@
+package com.cinemox.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchBookingRequest {
+    @NotEmpty(message = "At least one booking is required")
+    @Valid
+    private List<BookingRequest> bookings;
+}
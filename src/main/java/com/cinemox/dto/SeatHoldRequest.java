@@ -0,0 +1,16 @@
+package com.cinemox.dto;
+
+import lombok.Data;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+@Data
+public class SeatHoldRequest {
+    @NotBlank(message = "Schedule ID is required")
+    private String scheduleId;
+
+    @NotEmpty(message = "At least one seat must be selected")
+    private List<String> seats;
+}
@@ -0,0 +1,8 @@
+package com.cinemox.event;
+
+/**
+ * Published after a movie was created, edited or deleted. A null movieId
+ * means any number of movies may have changed, e.g. after a bulk rebuild.
+ */
+public record MovieChangedEvent(String movieId) {
+}
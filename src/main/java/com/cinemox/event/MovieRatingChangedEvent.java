@@ -0,0 +1,10 @@
+package com.cinemox.event;
+
+/**
+ * Published after a review changed a movie's rating aggregates. Kept apart
+ * from MovieChangedEvent because it fires on every review write, far more
+ * often than movies are edited. A null movieId means any number of movies
+ * may have changed, e.g. after a rebuild.
+ */
+public record MovieRatingChangedEvent(String movieId) {
+}
@@ -0,0 +1,12 @@
+package com.cinemox.event;
+
+import java.time.LocalDate;
+
+/**
+ * Published after a schedule was created, edited or deleted. An edit that
+ * moves a schedule to another day is published once for each day. Bulk
+ * changes, such as generating a template's series, publish a single event
+ * with both fields null.
+ */
+public record ScheduleChangedEvent(String scheduleId, LocalDate showDate) {
+}
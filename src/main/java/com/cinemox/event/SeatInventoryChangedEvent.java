@@ -0,0 +1,16 @@
+package com.cinemox.event;
+
+import java.util.List;
+
+/**
+ * Published after seats on a schedule changed state. availableDelta is
+ * negative when seats were taken and positive when they were given back.
+ */
+public record SeatInventoryChangedEvent(String scheduleId, String change, List<String> seats,
+        int availableDelta) {
+
+    public static final String CLAIMED = "CLAIMED";
+    public static final String HELD = "HELD";
+    public static final String CONFIRMED = "CONFIRMED"; // held seats became sold
+    public static final String RELEASED = "RELEASED";
+}
@@ -2,6 +2,8 @@ package com.cinemox.model;
 
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -9,12 +11,15 @@ import java.util.List;
 
 @Data
 @Document(collection = "bookings")
+@CompoundIndex(name = "schedule_status", def = "{'scheduleId': 1, 'status': 1}")
 public class Booking {
     @Id
     private String id;
 
+    @Indexed
     private String userId;
 
+    @Indexed
     private String userEmail;
 
     private String userName;
@@ -37,13 +42,22 @@ public class Booking {
 
     private Double totalPrice;
 
+    @Indexed(unique = true)
     private String bookingCode;
 
-    private String barcodeUrl;
+    @Indexed(sparse = true)
+    private String groupCode; // shared by bookings placed together through the batch endpoint
 
+    @Indexed(sparse = true)
+    private String requestId; // booking sequencer request id, so a poll on any node can find the booking
+
+    @Indexed
     private String status; // PENDING, CONFIRMED, CANCELLED
 
+    private LocalDateTime checkedInAt; // set when the ticket was admitted at the door
+
     private LocalDateTime bookingDate = LocalDateTime.now();
 
+    @Indexed
     private LocalDateTime createdAt = LocalDateTime.now();
 }
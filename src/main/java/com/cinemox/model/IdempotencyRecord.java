@@ -0,0 +1,28 @@
+package com.cinemox.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+@Data
+@Document(collection = "idempotency_keys")
+public class IdempotencyRecord {
+    @Id
+    private String id; // user email + ":" + Idempotency-Key header
+
+    private String fingerprint; // SHA-256 of the request body
+
+    private String status; // IN_PROGRESS, COMPLETED
+
+    private Integer httpStatus;
+
+    private String responseBody; // serialized ApiResponse
+
+    @Indexed(expireAfter = "0s") // removed by MongoDB's TTL monitor once expired
+    private LocalDateTime expiresAt;
+
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
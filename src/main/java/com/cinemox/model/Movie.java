@@ -2,10 +2,13 @@ package com.cinemox.model;
 
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Data
 @Document(collection = "movies")
@@ -35,14 +38,20 @@ public class Movie {
 
     private LocalDateTime releaseDate;
 
+    @Indexed
     private boolean nowShowing = true;
 
+    @Indexed
     private boolean comingSoon = false;
 
     private Double averageRating = 0.0; // Average user rating (1-5)
 
     private Integer totalReviews = 0; // Total number of reviews
 
+    private Integer ratingSum = 0; // Sum of all review ratings, kept with totalReviews
+
+    private Map<String, Integer> ratingHistogram = new LinkedHashMap<>(); // Reviews per star, keys "1".."5"
+
     private LocalDateTime createdAt = LocalDateTime.now();
 
     private LocalDateTime updatedAt = LocalDateTime.now();
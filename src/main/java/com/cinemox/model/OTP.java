@@ -2,6 +2,7 @@ package com.cinemox.model;
 
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -12,6 +13,7 @@ public class OTP {
     @Id
     private String id;
 
+    @Indexed
     private String email;
 
     private String otp;
@@ -0,0 +1,40 @@
+package com.cinemox.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+@Data
+@Document(collection = "outbox_events")
+@CompoundIndexes({
+        @CompoundIndex(name = "status_next_attempt", def = "{'status': 1, 'nextAttemptAt': 1}"),
+        @CompoundIndex(name = "status_locked_until", def = "{'status': 1, 'lockedUntil': 1}")
+})
+public class OutboxEvent {
+    @Id
+    private String id;
+
+    private String type; // BOOKING_CONFIRMED, BOOKING_GROUP_CONFIRMED
+
+    private String aggregateId; // booking id, or group code for a group order
+
+    private String status; // PENDING, PROCESSING, DONE, FAILED
+
+    private Integer attempts = 0;
+
+    private LocalDateTime nextAttemptAt = LocalDateTime.now();
+
+    private LocalDateTime lockedUntil;
+
+    private String claimToken; // set by each claim; only the current claimant may finish the event
+
+    private String lastError;
+
+    private LocalDateTime processedAt;
+
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
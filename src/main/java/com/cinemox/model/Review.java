@@ -1,19 +1,28 @@
 package com.cinemox.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.time.LocalDateTime;
 
 @Document(collection = "reviews")
+@CompoundIndexes({
+        @CompoundIndex(name = "movie_created_id", def = "{'movieId': 1, 'createdAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "movie_user", def = "{'movieId': 1, 'userId': 1}", unique = true)
+})
 public class Review {
     @Id
     private String id;
     private String movieId;
+    @Indexed
     private String userId;
     private String userName;
     private int rating; // 1-5 stars
     private String comment;
     private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
 
     public Review() {
         this.createdAt = LocalDateTime.now();
@@ -84,4 +93,12 @@ public class Review {
     public void setCreatedAt(LocalDateTime createdAt) {
         this.createdAt = createdAt;
     }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
 }
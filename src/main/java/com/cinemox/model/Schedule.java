@@ -2,6 +2,8 @@ package com.cinemox.model;
 
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDate;
@@ -11,6 +13,11 @@ import java.util.List;
 
 @Data
 @Document(collection = "schedules")
+@CompoundIndexes({
+        @CompoundIndex(name = "movie_active_date", def = "{'movieId': 1, 'active': 1, 'showDate': 1}"),
+        @CompoundIndex(name = "date_active", def = "{'showDate': 1, 'active': 1}"),
+        @CompoundIndex(name = "template_date", def = "{'templateId': 1, 'showDate': 1}", sparse = true)
+})
 public class Schedule {
     @Id
     private String id;
@@ -19,6 +26,8 @@ public class Schedule {
 
     private String movieTitle;
 
+    private String templateId; // set when generated from a ScheduleTemplate
+
     private String theater; // Theater name (e.g., "Theater 1", "Theater 2")
 
     private LocalDate showDate;
@@ -31,6 +40,14 @@ public class Schedule {
 
     private List<String> bookedSeats = new ArrayList<>();
 
+    private List<String> heldSeats = new ArrayList<>(); // claimed by an active seat hold, subset of booked seats
+
+    private String seatStorage; // LIST, BITSET (null means LIST)
+
+    private Integer seatsPerRow = 10;
+
+    private List<Long> seatBitmap; // packed occupancy words, only used with BITSET storage
+
     private Double price;
 
     private boolean active = true;
@@ -0,0 +1,43 @@
+package com.cinemox.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Document(collection = "schedule_templates")
+public class ScheduleTemplate {
+    @Id
+    private String id;
+
+    private String movieId;
+
+    private String movieTitle;
+
+    private String theater;
+
+    private List<LocalTime> showTimes = new ArrayList<>();
+
+    private LocalDate startDate;
+
+    private LocalDate endDate; // inclusive
+
+    private List<DayOfWeek> weekdays = new ArrayList<>(); // empty means every day
+
+    private Double price;
+
+    private Integer totalSeats = 50;
+
+    private boolean active = true;
+
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    private LocalDateTime updatedAt = LocalDateTime.now();
+}
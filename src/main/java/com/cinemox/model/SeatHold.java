@@ -0,0 +1,31 @@
+package com.cinemox.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Document(collection = "seat_holds")
+@CompoundIndex(name = "status_expires", def = "{'status': 1, 'expiresAt': 1}")
+public class SeatHold {
+    @Id
+    private String id;
+
+    private String scheduleId;
+
+    private String userEmail;
+
+    private List<String> seats;
+
+    private String status; // ACTIVE, RELEASED, EXPIRED, CONVERTED
+
+    private LocalDateTime expiresAt;
+
+    private String bookingId;
+
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
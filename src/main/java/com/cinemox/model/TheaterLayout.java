@@ -0,0 +1,35 @@
+package com.cinemox.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Document(collection = "theater_layouts")
+public class TheaterLayout {
+    @Id
+    private String id;
+
+    @Indexed(unique = true)
+    private String name; // matches Schedule.theater, e.g. "Theater 1"
+
+    private List<Row> rows = new ArrayList<>(); // front row first
+
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
+    @Data
+    public static class Row {
+        private String label; // "A", "B", ...
+
+        private Integer seats; // seats are numbered 1..seats, at most 64 per row
+
+        private List<Integer> aisleAfter = new ArrayList<>(); // seat numbers followed by an aisle
+
+        private String seatClass = "REGULAR"; // REGULAR, PREMIUM, ...
+    }
+}
@@ -0,0 +1,22 @@
+package com.cinemox.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+@Data
+@Document(collection = "used_admissions")
+public class UsedAdmission {
+    @Id
+    private String id; // schedule id + "|" + waiting room ticket
+
+    private String userEmail;
+
+    @Indexed(expireAfter = "0s") // kept until the admission token itself expires
+    private LocalDateTime expiresAt;
+
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
@@ -16,8 +16,16 @@ public interface BookingRepository extends MongoRepository<Booking, String> {
 
     Optional<Booking> findByBookingCode(String bookingCode);
 
+    Optional<Booking> findByRequestId(String requestId);
+
     List<Booking> findByStatus(String status);
 
+    List<Booking> findByGroupCode(String groupCode);
+
+    long deleteByGroupCode(String groupCode);
+
+    List<Booking> findByScheduleIdAndStatus(String scheduleId, String status);
+
     List<Booking> findByCreatedAtBetween(LocalDateTime start, LocalDateTime end);
 
     Long countByCreatedAtBetween(LocalDateTime start, LocalDateTime end);
@@ -12,7 +12,5 @@ public interface MovieRepository extends MongoRepository<Movie, String> {
 
     List<Movie> findByComingSoonTrue();
 
-    List<Movie> findByGenreContainingIgnoreCase(String genre);
-
     List<Movie> findByTitleContainingIgnoreCase(String title);
 }
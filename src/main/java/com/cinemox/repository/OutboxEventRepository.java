@@ -0,0 +1,14 @@
+package com.cinemox.repository;
+
+import com.cinemox.model.OutboxEvent;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends MongoRepository<OutboxEvent, String> {
+    List<OutboxEvent> findByStatus(String status);
+
+    long countByStatus(String status);
+}
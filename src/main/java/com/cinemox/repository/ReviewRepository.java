@@ -8,8 +8,6 @@ import java.util.List;
 
 @Repository
 public interface ReviewRepository extends MongoRepository<Review, String> {
-    List<Review> findByMovieIdOrderByCreatedAtDesc(String movieId);
-
     List<Review> findByUserId(String userId);
 
     void deleteByMovieId(String movieId);
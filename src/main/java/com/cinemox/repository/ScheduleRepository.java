@@ -14,4 +14,6 @@ public interface ScheduleRepository extends MongoRepository<Schedule, String> {
     List<Schedule> findByShowDateAndActiveTrue(LocalDate showDate);
 
     List<Schedule> findByMovieIdAndShowDateAndActiveTrue(String movieId, LocalDate showDate);
+
+    List<Schedule> findByTemplateIdAndShowDateGreaterThanEqual(String templateId, LocalDate showDate);
 }
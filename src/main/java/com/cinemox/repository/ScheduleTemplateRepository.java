@@ -0,0 +1,9 @@
+package com.cinemox.repository;
+
+import com.cinemox.model.ScheduleTemplate;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ScheduleTemplateRepository extends MongoRepository<ScheduleTemplate, String> {
+}
@@ -0,0 +1,15 @@
+package com.cinemox.repository;
+
+import com.cinemox.model.SeatHold;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SeatHoldRepository extends MongoRepository<SeatHold, String> {
+    List<SeatHold> findByStatus(String status);
+
+    List<SeatHold> findByStatusAndExpiresAtBefore(String status, LocalDateTime time);
+}
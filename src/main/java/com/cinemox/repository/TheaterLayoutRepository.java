@@ -0,0 +1,12 @@
+package com.cinemox.repository;
+
+import com.cinemox.model.TheaterLayout;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface TheaterLayoutRepository extends MongoRepository<TheaterLayout, String> {
+    Optional<TheaterLayout> findByName(String name);
+}
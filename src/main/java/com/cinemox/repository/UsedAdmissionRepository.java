@@ -0,0 +1,9 @@
+package com.cinemox.repository;
+
+import com.cinemox.model.UsedAdmission;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UsedAdmissionRepository extends MongoRepository<UsedAdmission, String> {
+}
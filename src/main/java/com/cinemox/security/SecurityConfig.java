@@ -45,6 +45,9 @@ public class SecurityConfig {
                                 "/api/auth/**",
                                 "/api/movies/**",
                                 "/api/schedules/**",
+                                "/api/showtimes/**",
+                                "/api/waiting-room/schedules/*/status",
+                                "/api/waiting-room/schedules/*/events",
                             "/api/reviews/movie/**",
                                 "/",
                                 "/index.html",
@@ -63,10 +66,13 @@ public class SecurityConfig {
                                 "/css/**",
                                 "/js/**",
                                 "/images/**",
+                                "/img/**",
                                 "/uploads/**",
                                 "/favicon.ico")
                         .permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/reviews/**").permitAll()
+                        // Signature checks need no user context; skipping auth keeps scans off the DB
+                        .requestMatchers("/api/tickets/verify").permitAll()
                         .requestMatchers("/api/admin/**").hasRole("ADMIN")
                         .anyRequest().authenticated())
                 .sessionManagement(session -> session
@@ -0,0 +1,130 @@
+package com.cinemox.security;
+
+import com.cinemox.model.Booking;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Signs and verifies compact ticket tokens that gate scanners can check
+ * offline with a shared key:
+ *
+ * <pre>CX1.&lt;keyId&gt;.&lt;base64url(code|scheduleId|seats|expiry)&gt;.&lt;base64url(hmac)&gt;</pre>
+ *
+ * New tickets are signed with the active key. Every configured key is
+ * accepted for verification, so rotating to a new key does not invalidate
+ * tickets that were already issued.
+ */
+@Component
+public class TicketSigner {
+
+    private static final String VERSION = "CX1";
+    private static final int SIGNATURE_BYTES = 16;
+
+    @Value("${cinemox.tickets.signing-keys}")
+    private String signingKeys;
+
+    @Value("${cinemox.tickets.active-key-id}")
+    private String activeKeyId;
+
+    @Value("${cinemox.tickets.valid-hours-after-show:6}")
+    private long validHoursAfterShow;
+
+    private final Map<String, byte[]> keys = new HashMap<>();
+
+    public record VerifiedTicket(String bookingCode, String scheduleId, List<String> seats, Instant expiresAt) {
+    }
+
+    @PostConstruct
+    public void init() {
+        for (String entry : signingKeys.split(",")) {
+            String[] parts = entry.trim().split(":", 2);
+            if (parts.length == 2 && !parts[0].isBlank() && !parts[1].isBlank()) {
+                keys.put(parts[0].trim(), parts[1].trim().getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        if (!keys.containsKey(activeKeyId)) {
+            throw new IllegalStateException("Active ticket key '" + activeKeyId + "' is not configured");
+        }
+    }
+
+    public String sign(Booking booking) {
+        Instant expiresAt = LocalDate.parse(booking.getShowDate())
+                .atTime(LocalTime.parse(booking.getShowTime()))
+                .plusHours(validHoursAfterShow)
+                .atZone(ZoneId.systemDefault())
+                .toInstant();
+
+        String payload = booking.getBookingCode() + "|" + booking.getScheduleId() + "|" +
+                String.join(",", booking.getSeats()) + "|" + expiresAt.getEpochSecond();
+        byte[] payloadBytes = payload.getBytes(StandardCharsets.UTF_8);
+
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return VERSION + "." + activeKeyId + "." + encoder.encodeToString(payloadBytes) + "." +
+                encoder.encodeToString(hmac(keys.get(activeKeyId), activeKeyId, payloadBytes));
+    }
+
+    public VerifiedTicket verify(String token) {
+        String[] parts = token != null ? token.trim().split("\\.") : new String[0];
+        if (parts.length != 4 || !VERSION.equals(parts[0])) {
+            throw new RuntimeException("Malformed ticket");
+        }
+
+        byte[] key = keys.get(parts[1]);
+        if (key == null) {
+            throw new RuntimeException("Unknown ticket key");
+        }
+
+        byte[] payloadBytes;
+        byte[] signature;
+        try {
+            Base64.Decoder decoder = Base64.getUrlDecoder();
+            payloadBytes = decoder.decode(parts[2]);
+            signature = decoder.decode(parts[3]);
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Malformed ticket");
+        }
+
+        if (!MessageDigest.isEqual(hmac(key, parts[1], payloadBytes), signature)) {
+            throw new RuntimeException("Invalid ticket signature");
+        }
+
+        String[] fields = new String(payloadBytes, StandardCharsets.UTF_8).split("\\|");
+        if (fields.length != 4) {
+            throw new RuntimeException("Malformed ticket");
+        }
+
+        Instant expiresAt = Instant.ofEpochSecond(Long.parseLong(fields[3]));
+        if (Instant.now().isAfter(expiresAt)) {
+            throw new RuntimeException("Ticket expired");
+        }
+
+        return new VerifiedTicket(fields[0], fields[1], Arrays.asList(fields[2].split(",")), expiresAt);
+    }
+
+    private byte[] hmac(byte[] key, String keyId, byte[] payload) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            // Bind the key id into the signature so a token cannot be relabelled
+            mac.update((VERSION + "." + keyId + ".").getBytes(StandardCharsets.UTF_8));
+            return Arrays.copyOf(mac.doFinal(payload), SIGNATURE_BYTES);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to sign ticket", e);
+        }
+    }
+}
@@ -7,25 +7,26 @@ import com.google.zxing.qrcode.QRCodeWriter;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayOutputStream;
-import java.util.Base64;
-import java.util.Random;
+import java.security.SecureRandom;
 
 @Service
 public class BarcodeService {
 
+    // Booking codes open the ticket, so they must not be guessable from earlier ones
+    private static final SecureRandom RANDOM = new SecureRandom();
+
     public String generateBookingCode() {
         String chars = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
-        Random random = new Random();
         StringBuilder code = new StringBuilder();
 
         for (int i = 0; i < 10; i++) {
-            code.append(chars.charAt(random.nextInt(chars.length())));
+            code.append(chars.charAt(RANDOM.nextInt(chars.length())));
         }
 
         return code.toString();
     }
 
-    public String generateBarcode(String data) {
+    public byte[] generateQrPng(String data) {
         try {
             QRCodeWriter qrCodeWriter = new QRCodeWriter();
             BitMatrix bitMatrix = qrCodeWriter.encode(data, BarcodeFormat.QR_CODE, 300, 300);
@@ -33,8 +34,7 @@ public class BarcodeService {
             ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
             MatrixToImageWriter.writeToStream(bitMatrix, "PNG", outputStream);
 
-            byte[] imageBytes = outputStream.toByteArray();
-            return "data:image/png;base64," + Base64.getEncoder().encodeToString(imageBytes);
+            return outputStream.toByteArray();
         } catch (Exception e) {
             throw new RuntimeException("Failed to generate barcode: " + e.getMessage());
         }
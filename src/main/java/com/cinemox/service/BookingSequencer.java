@@ -0,0 +1,306 @@
+package com.cinemox.service;
+
+import com.cinemox.dto.ApiResponse;
+import com.cinemox.dto.BookingRequest;
+import com.cinemox.model.Booking;
+import com.cinemox.model.Schedule;
+import com.cinemox.model.User;
+import com.cinemox.repository.BookingRepository;
+import com.cinemox.repository.ScheduleRepository;
+import com.cinemox.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Optional single-writer booking path for hot shows. Each schedule with
+ * bookings in flight gets its own queue, drained by one virtual thread that
+ * exits once the queue is empty, so a schedule only ever has one writer and a
+ * cold show never waits behind a hot one. Whatever has queued up for the
+ * schedule while the previous batch ran is claimed in one round trip; a lone
+ * request goes straight through the normal createBooking flow.
+ *
+ * A request that is not done within the timeout is still queued or running,
+ * so the caller gets a request id to poll rather than an error. The id is
+ * stored on the booking, so a poll that reaches another node, or this one
+ * after a restart, still finds the booking once it is written.
+ */
+@Service
+public class BookingSequencer {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${cinemox.booking.sequencer.enabled:false}")
+    private boolean enabled;
+
+    @Value("${cinemox.booking.sequencer.max-batch:32}")
+    private int maxBatch;
+
+    @Value("${cinemox.booking.sequencer.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${cinemox.booking.sequencer.timeout-ms:10000}")
+    private long timeoutMs;
+
+    @Value("${cinemox.booking.sequencer.result-retention-seconds:600}")
+    private long resultRetentionSeconds;
+
+    private final Map<String, ScheduleQueue> queues = new ConcurrentHashMap<>();
+    private final Map<String, PendingBooking> timedOut = new ConcurrentHashMap<>();
+
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong batchedRequests = new AtomicLong();
+    private final AtomicLong largestBatch = new AtomicLong();
+    private final AtomicLong fallbacks = new AtomicLong();
+
+    private record PendingBooking(String id, String userEmail, BookingRequest request,
+            CompletableFuture<ApiResponse> result, long submittedAtMillis) {
+    }
+
+    // Guarded by the queues map: only touched inside queues.compute for its schedule
+    private static class ScheduleQueue {
+        final Deque<PendingBooking> pending = new ArrayDeque<>();
+        boolean draining;
+    }
+
+    /**
+     * Result of a submitted booking. While pending, response is null and the
+     * request id can be polled with {@link #poll}.
+     */
+    public record Outcome(String requestId, ApiResponse response) {
+        public boolean isPending() {
+            return response == null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @throws RejectedExecutionException if the schedule's queue is full
+     */
+    public Outcome submit(String userEmail, BookingRequest request) {
+        String scheduleId = request.getScheduleId();
+        PendingBooking pending = new PendingBooking(UUID.randomUUID().toString(), userEmail, request,
+                new CompletableFuture<>(), System.currentTimeMillis());
+        boolean[] accepted = {false};
+        boolean[] startDrain = {false};
+        queues.compute(scheduleId, (id, queue) -> {
+            ScheduleQueue target = queue != null ? queue : new ScheduleQueue();
+            if (target.pending.size() < queueCapacity) {
+                target.pending.add(pending);
+                accepted[0] = true;
+                if (!target.draining) {
+                    target.draining = true;
+                    startDrain[0] = true;
+                }
+            }
+            return target;
+        });
+        if (!accepted[0]) {
+            throw new RejectedExecutionException("Booking queue is full, please try again");
+        }
+        if (startDrain[0]) {
+            Thread.ofVirtual().name("booking-sequencer-" + scheduleId).start(() -> drain(scheduleId));
+        }
+
+        try {
+            return new Outcome(pending.id(), pending.result().get(timeoutMs, TimeUnit.MILLISECONDS));
+        } catch (TimeoutException e) {
+            // Still queued or being written; the client polls for the outcome
+            timedOut.put(pending.id(), pending);
+            return new Outcome(pending.id(), null);
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            timedOut.put(pending.id(), pending);
+            return new Outcome(pending.id(), null);
+        }
+    }
+
+    /**
+     * Outcome of a request that timed out in {@link #submit}. Requests this
+     * node does not know about are looked up by the booking they wrote.
+     */
+    public Outcome poll(String userEmail, String requestId) {
+        PendingBooking pending = timedOut.get(requestId);
+        if (pending == null) {
+            Booking booking = bookingRepository.findByRequestId(requestId)
+                    .filter(found -> found.getUserEmail().equals(userEmail))
+                    .orElseThrow(() -> new RuntimeException("Booking request not found, please check My Bookings"));
+            return new Outcome(requestId, new ApiResponse(true, "Booking successful", booking));
+        }
+        if (!pending.userEmail().equals(userEmail)) {
+            throw new RuntimeException("Booking request not found, please check My Bookings");
+        }
+        if (!pending.result().isDone()) {
+            return new Outcome(requestId, null);
+        }
+        try {
+            return new Outcome(requestId, pending.result().join());
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void forgetOldResults() {
+        long cutoff = System.currentTimeMillis() - resultRetentionSeconds * 1000;
+        timedOut.values().removeIf(pending -> pending.submittedAtMillis() < cutoff);
+    }
+
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        Map<String, Integer> depths = new LinkedHashMap<>();
+        queues.forEach((scheduleId, queue) -> queues.computeIfPresent(scheduleId, (id, current) -> {
+            depths.put(id, current.pending.size());
+            return current;
+        }));
+
+        long batchCount = batches.get();
+        metrics.put("enabled", enabled);
+        metrics.put("activeSchedules", depths.size());
+        metrics.put("queueDepths", depths);
+        metrics.put("totalQueueDepth", depths.values().stream().mapToInt(Integer::intValue).sum());
+        metrics.put("awaitingPoll", timedOut.size());
+        metrics.put("batches", batchCount);
+        metrics.put("batchedRequests", batchedRequests.get());
+        metrics.put("averageBatchSize", batchCount == 0 ? 0.0 : (double) batchedRequests.get() / batchCount);
+        metrics.put("largestBatch", largestBatch.get());
+        metrics.put("batchFallbacks", fallbacks.get());
+        return metrics;
+    }
+
+    private void drain(String scheduleId) {
+        while (true) {
+            List<PendingBooking> batch = new ArrayList<>();
+            // An empty queue is removed in the same step, so a new submit starts a fresh drainer
+            queues.computeIfPresent(scheduleId, (id, queue) -> {
+                while (batch.size() < maxBatch && !queue.pending.isEmpty()) {
+                    batch.add(queue.pending.poll());
+                }
+                return batch.isEmpty() ? null : queue;
+            });
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                process(batch);
+            } catch (RuntimeException e) {
+                batch.forEach(pending -> pending.result().completeExceptionally(e));
+            }
+        }
+    }
+
+    private static RuntimeException unwrap(ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException cause) {
+            return cause;
+        }
+        return new RuntimeException(e.getCause().getMessage(), e.getCause());
+    }
+
+    private void process(List<PendingBooking> batch) {
+        batches.incrementAndGet();
+        batchedRequests.addAndGet(batch.size());
+        largestBatch.accumulateAndGet(batch.size(), Math::max);
+
+        if (batch.size() == 1 || !claimTogether(batch)) {
+            batch.forEach(this::processSingle);
+        }
+    }
+
+    private void processSingle(PendingBooking pending) {
+        try {
+            pending.result().complete(bookingService.createBooking(pending.userEmail(), pending.request(),
+                    pending.id()));
+        } catch (Exception e) {
+            pending.result().completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Claims the seats of every request in the batch with one conditional
+     * update. Returns false without side effects if the requests overlap or
+     * any seat is taken, so the caller can fall back to one claim per request.
+     */
+    private boolean claimTogether(List<PendingBooking> batch) {
+        Set<String> union = new HashSet<>();
+        List<String> seats = new ArrayList<>();
+        for (PendingBooking pending : batch) {
+            for (String seat : pending.request().getSeats()) {
+                if (!union.add(seat)) {
+                    fallbacks.incrementAndGet();
+                    return false;
+                }
+                seats.add(seat);
+            }
+        }
+
+        Schedule schedule = scheduleRepository.findById(batch.get(0).request().getScheduleId()).orElse(null);
+        if (schedule == null || !claimQuietly(schedule, seats)) {
+            fallbacks.incrementAndGet();
+            return false;
+        }
+
+        for (PendingBooking pending : batch) {
+            List<String> pendingSeats = pending.request().getSeats();
+            Booking booking = null;
+            try {
+                User user = userRepository.findByEmail(pending.userEmail())
+                        .orElseThrow(() -> new RuntimeException("User not found"));
+                booking = bookingService.saveConfirmedBooking(user, schedule, pendingSeats,
+                        pending.request().getTotalPrice(), pending.id());
+                pending.result().complete(bookingService.queueConfirmation(booking));
+            } catch (Exception e) {
+                if (booking == null) {
+                    seatInventoryService.releaseSeats(schedule, pendingSeats);
+                }
+                pending.result().completeExceptionally(e);
+            }
+        }
+        return true;
+    }
+
+    private boolean claimQuietly(Schedule schedule, List<String> seats) {
+        try {
+            return seatInventoryService.claimSeats(schedule, seats);
+        } catch (RuntimeException e) {
+            // e.g. an invalid seat label; let the single path report it per request
+            return false;
+        }
+    }
+}
@@ -1,19 +1,26 @@
 package com.cinemox.service;
 
 import com.cinemox.dto.ApiResponse;
+import com.cinemox.dto.BatchBookingRequest;
 import com.cinemox.dto.BookingRequest;
 import com.cinemox.model.Booking;
+import com.cinemox.model.OutboxEvent;
 import com.cinemox.model.Schedule;
 import com.cinemox.model.User;
 import com.cinemox.repository.BookingRepository;
 import com.cinemox.repository.ScheduleRepository;
 import com.cinemox.repository.UserRepository;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 @Service
 public class BookingService {
@@ -31,28 +38,217 @@ public class BookingService {
     private BarcodeService barcodeService;
 
     @Autowired
-    private EmailService emailService;
+    private OutboxService outboxService;
+
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
+    @Autowired
+    private TheaterLayoutService theaterLayoutService;
+
+    @Value("${cinemox.booking.batch.max-bookings:20}")
+    private int batchMaxBookings;
+
+    @Value("${cinemox.booking.batch.max-seats:200}")
+    private int batchMaxSeats;
 
     @Transactional
     public ApiResponse createBooking(String userEmail, BookingRequest request) {
+        return createBooking(userEmail, request, null);
+    }
+
+    /**
+     * @param requestId booking sequencer request id to record on the booking, or null
+     */
+    @Transactional
+    public ApiResponse createBooking(String userEmail, BookingRequest request, String requestId) {
         User user = userRepository.findByEmail(userEmail)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         Schedule schedule = scheduleRepository.findById(request.getScheduleId())
                 .orElseThrow(() -> new RuntimeException("Schedule not found"));
 
-        // Check seat availability
-        for (String seat : request.getSeats()) {
-            if (schedule.getBookedSeats().contains(seat)) {
-                return new ApiResponse(false, "Seat " + seat + " is already booked", null);
+        List<String> seats = request.getSeats();
+        if (seats.stream().distinct().count() != seats.size()) {
+            return new ApiResponse(false, "Duplicate seats in request", null);
+        }
+
+        // Claim the seats server-side; only one concurrent buyer can win a seat
+        if (!seatInventoryService.claimSeats(schedule, seats)) {
+            return seatConflictResponse(schedule.getId(), seats);
+        }
+
+        Booking booking;
+        try {
+            booking = saveConfirmedBooking(user, schedule, seats, request.getTotalPrice(), requestId);
+        } catch (RuntimeException e) {
+            seatInventoryService.releaseSeats(schedule, seats);
+            throw e;
+        }
+
+        return queueConfirmation(booking);
+    }
+
+    /**
+     * Books seats that were already claimed by a seat hold. If the booking
+     * cannot be written the held seats are given back.
+     */
+    public ApiResponse createBookingFromHold(String userEmail, String scheduleId, List<String> seats,
+            Double totalPrice) {
+        User user = userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        Schedule schedule = scheduleRepository.findById(scheduleId)
+                .orElseThrow(() -> new RuntimeException("Schedule not found"));
+
+        // Anything thrown before the insert leaves the seats held; the caller puts the hold back
+        Booking booking = saveConfirmedBooking(user, schedule, seats, totalPrice, null);
+        try {
+            seatInventoryService.confirmHeldSeats(schedule, seats);
+        } catch (RuntimeException e) {
+            // The booking is durable; the seats are only left listed as held as well
+            System.err.println("Failed to confirm held seats for booking " + booking.getId() + ": " + e.getMessage());
+        }
+
+        return queueConfirmation(booking);
+    }
+
+    /**
+     * The booking is durable at this point; the confirmation email is sent by
+     * the outbox workers.
+     */
+    ApiResponse queueConfirmation(Booking booking) {
+        outboxService.dispatchNow();
+        return new ApiResponse(true, "Booking successful", booking);
+    }
+
+    /**
+     * Books seats on one or more schedules for a group, all or nothing. Seats
+     * are claimed with one conditional update per schedule; if any claim
+     * loses, the claims already won are given back. All bookings are written
+     * in one bulk insert and share a group code, and a single consolidated
+     * confirmation email is queued for the whole order. If the insert fails
+     * part way, the bookings it did write are deleted before the seats go back.
+     */
+    public ApiResponse createBatchBooking(String userEmail, BatchBookingRequest request) {
+        List<BookingRequest> items = request.getBookings();
+        int totalTickets = items.stream().mapToInt(item -> item.getSeats().size()).sum();
+        if (items.size() > batchMaxBookings || totalTickets > batchMaxSeats) {
+            return new ApiResponse(false, "A batch may hold at most " + batchMaxBookings
+                    + " bookings and " + batchMaxSeats + " seats", null);
+        }
+
+        User user = userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        // Seats per schedule, in a fixed order so concurrent batches claim alike
+        Map<String, List<String>> seatsBySchedule = new TreeMap<>();
+        for (BookingRequest item : items) {
+            List<String> seats = seatsBySchedule.computeIfAbsent(item.getScheduleId(), id -> new ArrayList<>());
+            for (String seat : item.getSeats()) {
+                if (seats.contains(seat)) {
+                    return new ApiResponse(false, "Seat " + seat + " appears twice in the batch", null);
+                }
+                seats.add(seat);
+            }
+        }
+
+        Map<String, Schedule> schedules = new HashMap<>();
+        for (Schedule schedule : scheduleRepository.findAllById(seatsBySchedule.keySet())) {
+            schedules.put(schedule.getId(), schedule);
+        }
+        for (String scheduleId : seatsBySchedule.keySet()) {
+            if (!schedules.containsKey(scheduleId)) {
+                throw new RuntimeException("Schedule not found: " + scheduleId);
+            }
+        }
+
+        List<String> claimed = new ArrayList<>();
+        try {
+            for (Map.Entry<String, List<String>> entry : seatsBySchedule.entrySet()) {
+                if (!seatInventoryService.claimSeats(schedules.get(entry.getKey()), entry.getValue())) {
+                    releaseClaims(schedules, seatsBySchedule, claimed);
+                    return seatConflictResponse(entry.getKey(), entry.getValue());
+                }
+                claimed.add(entry.getKey());
             }
+        } catch (RuntimeException e) {
+            releaseClaims(schedules, seatsBySchedule, claimed);
+            throw e;
+        }
+
+        String groupCode = barcodeService.generateBookingCode();
+        List<Booking> bookings = new ArrayList<>();
+        for (BookingRequest item : items) {
+            Booking booking = buildConfirmedBooking(user, schedules.get(item.getScheduleId()),
+                    item.getSeats(), item.getTotalPrice());
+            booking.setGroupCode(groupCode);
+            bookings.add(booking);
+        }
+
+        // One event for the whole order, recorded before the bookings like a single booking's
+        OutboxEvent event;
+        try {
+            event = outboxService.enqueue(OutboxService.BOOKING_GROUP_CONFIRMED, groupCode);
+        } catch (RuntimeException e) {
+            releaseClaims(schedules, seatsBySchedule, claimed);
+            throw e;
+        }
+        try {
+            bookings = bookingRepository.insert(bookings);
+        } catch (RuntimeException e) {
+            undoGroupInsert(event, groupCode, schedules, seatsBySchedule, claimed);
+            throw e;
+        }
+
+        outboxService.dispatchNow();
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("groupCode", groupCode);
+        data.put("totalTickets", totalTickets);
+        data.put("bookings", bookings);
+        return new ApiResponse(true, "Group booking successful", data);
+    }
+
+    /**
+     * A failed bulk insert may still have written some of the bookings. They
+     * are removed before the seats are given back, so the order stays all or
+     * nothing; if they cannot be removed the seats stay claimed, since
+     * releasing them would let the surviving bookings be sold twice.
+     */
+    private void undoGroupInsert(OutboxEvent event, String groupCode, Map<String, Schedule> schedules,
+            Map<String, List<String>> seatsBySchedule, List<String> claimed) {
+        try {
+            outboxService.discard(event);
+            bookingRepository.deleteByGroupCode(groupCode);
+        } catch (RuntimeException cleanup) {
+            System.err.println("Failed to roll back group booking " + groupCode + ", seats left claimed: "
+                    + cleanup.getMessage());
+            return;
         }
+        releaseClaims(schedules, seatsBySchedule, claimed);
+    }
 
-        if (schedule.getAvailableSeats() < request.getSeats().size()) {
-            return new ApiResponse(false, "Not enough seats available", null);
+    private void releaseClaims(Map<String, Schedule> schedules, Map<String, List<String>> seatsBySchedule,
+            List<String> claimed) {
+        for (String scheduleId : claimed) {
+            seatInventoryService.releaseSeats(schedules.get(scheduleId), seatsBySchedule.get(scheduleId));
         }
+        claimed.clear();
+    }
+
+    Booking saveConfirmedBooking(User user, Schedule schedule, List<String> seats, Double totalPrice,
+            String requestId) {
+        Booking booking = buildConfirmedBooking(user, schedule, seats, totalPrice);
+        booking.setRequestId(requestId);
+
+        // Record the event before the booking so a crash in between cannot lose the email
+        outboxService.enqueue(OutboxService.BOOKING_CONFIRMED, booking.getId());
+
+        return bookingRepository.insert(booking);
+    }
 
-        // Create booking
+    private Booking buildConfirmedBooking(User user, Schedule schedule, List<String> seats, Double totalPrice) {
         Booking booking = new Booking();
         booking.setUserId(user.getId());
         booking.setUserEmail(user.getEmail());
@@ -63,40 +259,39 @@ public class BookingService {
         booking.setTheater(schedule.getTheater());
         booking.setShowDate(schedule.getShowDate().toString());
         booking.setShowTime(schedule.getShowTime().toString());
-        booking.setSeats(request.getSeats());
-        booking.setTotalTickets(request.getSeats().size());
-        booking.setTotalPrice(request.getTotalPrice());
+        booking.setSeats(seats);
+        booking.setTotalTickets(seats.size());
+        booking.setTotalPrice(totalPrice);
         booking.setStatus("CONFIRMED");
 
-        // Generate booking code and barcode
-        String bookingCode = barcodeService.generateBookingCode();
-        booking.setBookingCode(bookingCode);
-
-        String barcodeData = "CINEMOX|" + bookingCode + "|" + schedule.getMovieTitle() + "|" +
-                schedule.getShowDate() + "|" + schedule.getShowTime();
-        String barcodeUrl = barcodeService.generateBarcode(barcodeData);
-        booking.setBarcodeUrl(barcodeUrl);
-
-        bookingRepository.save(booking);
-
-        // Update schedule
-        schedule.getBookedSeats().addAll(request.getSeats());
-        schedule.setAvailableSeats(schedule.getAvailableSeats() - request.getSeats().size());
-        scheduleRepository.save(schedule);
-
-        // Send confirmation email
-        emailService.sendBookingConfirmation(
-                user.getEmail(),
-                bookingCode,
-                schedule.getMovieTitle(),
-                schedule.getShowDate().toString(),
-                schedule.getShowTime().toString(),
-                schedule.getTheater(),
-                String.join(", ", request.getSeats()),
-                request.getTotalPrice(),
-                barcodeUrl);
+        // Generate booking code; the QR is rendered on demand from it
+        booking.setBookingCode(barcodeService.generateBookingCode());
 
-        return new ApiResponse(true, "Booking successful", booking);
+        // Ids are assigned up front so outbox events can refer to them
+        booking.setId(new ObjectId().toHexString());
+        return booking;
+    }
+
+    ApiResponse seatConflictResponse(String scheduleId, List<String> seats) {
+        // Re-read only to explain the failure; the claim itself already lost
+        Schedule latest = scheduleRepository.findById(scheduleId)
+                .orElseThrow(() -> new RuntimeException("Schedule not found"));
+        List<String> bookedSeats = seatInventoryService.bookedSeatLabels(latest);
+
+        // Offer the free block closest to what the customer picked
+        List<String> alternative = theaterLayoutService.nearestAvailable(latest, bookedSeats, seats);
+        Map<String, Object> data = alternative.isEmpty() ? null : Map.of("alternativeSeats", alternative);
+
+        for (String seat : seats) {
+            if (bookedSeats.contains(seat)) {
+                String message = "Seat " + seat + " is already booked";
+                if (!alternative.isEmpty()) {
+                    message += "; seats " + String.join(", ", alternative) + " are available";
+                }
+                return new ApiResponse(false, message, data);
+            }
+        }
+        return new ApiResponse(false, "Not enough seats available", data);
     }
 
     public List<Booking> getUserBookings(String userEmail) {
@@ -0,0 +1,195 @@
+package com.cinemox.service;
+
+import com.cinemox.dto.ApiResponse;
+import com.cinemox.model.Booking;
+import com.cinemox.repository.BookingRepository;
+import com.cinemox.security.TicketSigner;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Door check-in. Each showtime's valid tickets and admitted set are held in
+ * memory (preloaded before doors open, or on the first scan), so a scan is a
+ * signature check plus a map lookup. Admissions are written back to the
+ * bookings in batches.
+ *
+ * Admitted sets are per node: route a show's scanners to one node, or
+ * preload again to pick up admissions flushed by another node.
+ */
+@Service
+public class CheckInService {
+
+    private static final long SHOW_RETENTION_HOURS = 12;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private final Map<String, ShowAdmissions> shows = new ConcurrentHashMap<>();
+    private final BlockingQueue<Admission> pendingWrites = new LinkedBlockingQueue<>();
+
+    private record Admission(String bookingCode, LocalDateTime admittedAt) {
+    }
+
+    private static class ShowAdmissions {
+        final Map<String, Integer> ticketsByCode = new ConcurrentHashMap<>();
+        final Map<String, LocalDateTime> admitted = new ConcurrentHashMap<>();
+        final AtomicInteger totalTickets = new AtomicInteger();
+        final AtomicInteger admittedTickets = new AtomicInteger();
+        volatile LocalDateTime loadedAt = LocalDateTime.now();
+    }
+
+    /**
+     * Loads the show, or merges the current bookings into the copy already in
+     * memory: admissions not flushed yet must survive a reload.
+     */
+    public Map<String, Object> preload(String scheduleId) {
+        ShowAdmissions show = shows.computeIfAbsent(scheduleId, id -> new ShowAdmissions());
+        for (Booking booking : bookingRepository.findByScheduleIdAndStatus(scheduleId, "CONFIRMED")) {
+            register(show, booking);
+        }
+        show.loadedAt = LocalDateTime.now();
+        return stats(scheduleId);
+    }
+
+    public ApiResponse checkInToken(String token) {
+        TicketSigner.VerifiedTicket ticket = ticketService.verify(token);
+        return admit(ticket.scheduleId(), ticket.bookingCode());
+    }
+
+    /**
+     * Manual entry for tickets whose QR cannot be scanned.
+     */
+    public ApiResponse checkInCode(String scheduleId, String bookingCode) {
+        return admit(scheduleId, bookingCode);
+    }
+
+    public Map<String, Object> stats(String scheduleId) {
+        ShowAdmissions show = shows.computeIfAbsent(scheduleId, this::load);
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("scheduleId", scheduleId);
+        stats.put("totalBookings", show.ticketsByCode.size());
+        stats.put("admittedBookings", show.admitted.size());
+        stats.put("totalTickets", show.totalTickets.get());
+        stats.put("admittedTickets", show.admittedTickets.get());
+        stats.put("remainingTickets", show.totalTickets.get() - show.admittedTickets.get());
+        return stats;
+    }
+
+    @Scheduled(fixedDelayString = "${cinemox.checkin.flush-interval-ms:1000}")
+    public void flushAdmissions() {
+        List<Admission> batch = new ArrayList<>();
+        pendingWrites.drainTo(batch, 1000);
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Booking.class);
+            for (Admission admission : batch) {
+                bulk.updateOne(
+                        new Query(Criteria.where("bookingCode").is(admission.bookingCode())
+                                .and("checkedInAt").is(null)),
+                        new Update().set("checkedInAt", admission.admittedAt()));
+            }
+            bulk.execute();
+        } catch (Exception e) {
+            System.err.println("Failed to persist " + batch.size() + " check-ins: " + e.getMessage());
+            pendingWrites.addAll(batch);
+        }
+    }
+
+    @Scheduled(fixedDelay = 3600000)
+    public void evictFinishedShows() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(SHOW_RETENTION_HOURS);
+        shows.values().removeIf(show -> show.loadedAt.isBefore(cutoff));
+    }
+
+    /**
+     * A ticket already admitted fails with the earlier admission as data; a
+     * ticket that does not belong to the show fails without data.
+     */
+    private ApiResponse admit(String scheduleId, String bookingCode) {
+        ShowAdmissions show = shows.computeIfAbsent(scheduleId, this::load);
+
+        Integer tickets = show.ticketsByCode.get(bookingCode);
+        if (tickets == null) {
+            tickets = lateBooking(show, scheduleId, bookingCode);
+            if (tickets == null) {
+                return new ApiResponse(false, "Ticket is not valid for this show", null);
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime previous = show.admitted.putIfAbsent(bookingCode, now);
+        if (previous != null) {
+            return new ApiResponse(false, "Ticket already admitted at " + previous,
+                    Map.of("bookingCode", bookingCode, "admittedAt", previous));
+        }
+
+        show.admittedTickets.addAndGet(tickets);
+        pendingWrites.add(new Admission(bookingCode, now));
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("bookingCode", bookingCode);
+        data.put("tickets", tickets);
+        data.put("admittedTickets", show.admittedTickets.get());
+        data.put("remainingTickets", show.totalTickets.get() - show.admittedTickets.get());
+        return new ApiResponse(true, "Ticket admitted", data);
+    }
+
+    /**
+     * Bookings made after the show was loaded are looked up once and added.
+     */
+    private Integer lateBooking(ShowAdmissions show, String scheduleId, String bookingCode) {
+        Booking booking = bookingRepository.findByBookingCode(bookingCode).orElse(null);
+        if (booking == null || !scheduleId.equals(booking.getScheduleId())
+                || !"CONFIRMED".equals(booking.getStatus())) {
+            return null;
+        }
+        register(show, booking);
+        return show.ticketsByCode.get(bookingCode);
+    }
+
+    private ShowAdmissions load(String scheduleId) {
+        ShowAdmissions show = new ShowAdmissions();
+        for (Booking booking : bookingRepository.findByScheduleIdAndStatus(scheduleId, "CONFIRMED")) {
+            register(show, booking);
+        }
+        return show;
+    }
+
+    private void register(ShowAdmissions show, Booking booking) {
+        int tickets = booking.getTotalTickets() != null ? booking.getTotalTickets() : booking.getSeats().size();
+        if (show.ticketsByCode.putIfAbsent(booking.getBookingCode(), tickets) == null) {
+            show.totalTickets.addAndGet(tickets);
+        }
+        // Known tickets may still have been admitted by another node since the last load
+        if (booking.getCheckedInAt() != null
+                && show.admitted.putIfAbsent(booking.getBookingCode(), booking.getCheckedInAt()) == null) {
+            show.admittedTickets.addAndGet(tickets);
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package com.cinemox.service;
 
+import com.cinemox.model.Booking;
 import com.cinemox.model.OTP;
 import com.cinemox.repository.OTPRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ByteArrayResource;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
@@ -10,6 +12,9 @@ import org.springframework.stereotype.Service;
 import jakarta.mail.internet.MimeMessage;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Random;
 
 @Service
@@ -55,15 +60,35 @@ public class EmailService {
 
     public void sendBookingConfirmation(String email, String bookingCode, String movieTitle,
             String showDate, String showTime, String theater,
-            String seats, Double totalPrice, String barcodeUrl) {
+            String seats, Double totalPrice, byte[] barcodePng) {
         String subject = "Booking Confirmation - Cinemox";
         String body = buildBookingEmailBody(bookingCode, movieTitle, showDate, showTime,
-                theater, seats, totalPrice, barcodeUrl);
+                theater, seats, totalPrice);
 
-        sendHtmlEmail(email, subject, body);
+        sendHtmlEmail(email, subject, body, barcodePng);
+    }
+
+    public void sendGroupBookingConfirmation(String email, String groupCode, List<Booking> bookings,
+            Map<String, byte[]> qrPngsByCode) {
+        String subject = "Group Booking Confirmation - Cinemox";
+        String body = buildGroupBookingEmailBody(groupCode, bookings);
+
+        // Each ticket is referenced from the body as cid:qr-<bookingCode>
+        Map<String, byte[]> inlineImages = new LinkedHashMap<>();
+        qrPngsByCode.forEach((code, png) -> inlineImages.put("qr-" + code, png));
+        sendHtmlEmail(email, subject, body, inlineImages);
     }
 
     private void sendHtmlEmail(String to, String subject, String htmlBody) {
+        sendHtmlEmail(to, subject, htmlBody, Map.of());
+    }
+
+    private void sendHtmlEmail(String to, String subject, String htmlBody, byte[] barcodePng) {
+        // Referenced from the body as cid:barcode
+        sendHtmlEmail(to, subject, htmlBody, barcodePng != null ? Map.of("barcode", barcodePng) : Map.of());
+    }
+
+    private void sendHtmlEmail(String to, String subject, String htmlBody, Map<String, byte[]> inlineImages) {
         try {
             System.out.println("Attempting to send email to: " + to);
             System.out.println("Subject: " + subject);
@@ -75,6 +100,9 @@ public class EmailService {
             helper.setTo(to);
             helper.setSubject(subject);
             helper.setText(htmlBody, true);
+            for (Map.Entry<String, byte[]> image : inlineImages.entrySet()) {
+                helper.addInline(image.getKey(), new ByteArrayResource(image.getValue()), "image/png");
+            }
 
             mailSender.send(message);
 
@@ -168,7 +196,7 @@ public class EmailService {
 
     private String buildBookingEmailBody(String bookingCode, String movieTitle, String showDate,
             String showTime, String theater, String seats,
-            Double totalPrice, String barcodeUrl) {
+            Double totalPrice) {
         return """
                 <!DOCTYPE html>
                 <html>
@@ -299,4 +327,100 @@ public class EmailService {
                             </html>
                             """;
     }
+
+    private String buildGroupBookingEmailBody(String groupCode, List<Booking> bookings) {
+        StringBuilder tickets = new StringBuilder();
+        double total = 0;
+        for (Booking booking : bookings) {
+            total += booking.getTotalPrice() != null ? booking.getTotalPrice() : 0;
+            tickets.append("<div class=\"ticket\">")
+                    .append("<div class=\"booking-code\">").append(booking.getBookingCode()).append("</div>")
+                    .append("<p><strong>").append(booking.getMovieTitle()).append("</strong><br/>")
+                    .append(booking.getShowDate()).append(" ").append(booking.getShowTime())
+                    .append(" &middot; ").append(booking.getTheater()).append("<br/>")
+                    .append("Seats: ").append(String.join(", ", booking.getSeats())).append("</p>")
+                    .append("<img src=\"cid:qr-").append(booking.getBookingCode()).append("\" alt=\"Ticket QR\"/>")
+                    .append("</div>");
+        }
+
+        return """
+                <!DOCTYPE html>
+                <html>
+                <head>
+                    <style>
+                        body {
+                            font-family: Arial, sans-serif;
+                            background-color: #F4F4F4;
+                            margin: 0;
+                            padding: 20px;
+                        }
+                        .container {
+                            max-width: 600px;
+                            margin: 0 auto;
+                            background-color: white;
+                            border-radius: 10px;
+                            overflow: hidden;
+                            box-shadow: 0 4px 6px rgba(0, 0, 0, 0.1);
+                        }
+                        .header {
+                            background: linear-gradient(135deg, #005461 0%, #018790 100%);
+                            color: white;
+                            padding: 30px;
+                            text-align: center;
+                        }
+                        .content {
+                            padding: 40px 30px;
+                        }
+                        .ticket {
+                            background-color: #F4F4F4;
+                            padding: 20px;
+                            border-radius: 10px;
+                            margin: 20px 0;
+                            text-align: center;
+                        }
+                        .ticket img {
+                            max-width: 200px;
+                            height: auto;
+                        }
+                        .booking-code {
+                            background-color: #00B7B5;
+                            color: white;
+                            font-size: 20px;
+                            font-weight: bold;
+                            padding: 10px;
+                            border-radius: 10px;
+                            letter-spacing: 2px;
+                        }
+                        .footer {
+                            background-color: #005461;
+                            color: white;
+                            padding: 20px;
+                            text-align: center;
+                            font-size: 14px;
+                        }
+                    </style>
+                </head>
+                <body>
+                    <div class="container">
+                        <div class="header">
+                            <h1>Group Booking Confirmed</h1>
+                        </div>
+                        <div class="content">
+                            <h2>Order\s""" + groupCode + """
+                </h2>
+                                        <p>""" + bookings.size() + " bookings, total Rp " + String.format("%,.0f", total) + """
+                </p>
+                """ + tickets + """
+                                        <p style="text-align: center; color: #666;">
+                                            Each ticket can be scanned separately at the cinema entrance.
+                                        </p>
+                                    </div>
+                                    <div class="footer">
+                                        <p>&copy; 2024 Cinemox. All rights reserved.</p>
+                                    </div>
+                                </div>
+                            </body>
+                            </html>
+                            """;
+    }
 }
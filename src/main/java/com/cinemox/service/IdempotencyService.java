@@ -0,0 +1,163 @@
+package com.cinemox.service;
+
+import com.cinemox.dto.ApiResponse;
+import com.cinemox.model.IdempotencyRecord;
+import com.cinemox.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+
+/**
+ * Replays the stored response when a client retries a request with the same
+ * Idempotency-Key, instead of running the request again. Keys are scoped to
+ * the user and kept for a limited time by a TTL index on expiresAt.
+ *
+ * Only final answers are stored: successes and 4xx rejections that would come
+ * out the same on a retry. A 202 counts as a success, since it carries the
+ * request id to poll for the booking it started. Server errors and rate
+ * limits let the retry run again. A key that is in progress holds a short
+ * lease rather than the full TTL, so a crash mid-request frees it quickly.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final String STATUS_IN_PROGRESS = "IN_PROGRESS";
+    private static final String STATUS_COMPLETED = "COMPLETED";
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${cinemox.idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${cinemox.idempotency.lease-seconds:60}")
+    private long leaseSeconds;
+
+    public ResponseEntity<ApiResponse> execute(String userEmail, String key, Object request,
+            Supplier<ResponseEntity<ApiResponse>> action) {
+        if (key.isBlank() || key.length() > 255) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse(false, "Idempotency-Key must be 1 to 255 characters", null));
+        }
+
+        String id = userEmail + ":" + key;
+        String fingerprint = fingerprint(request);
+
+        if (!tryStart(id, fingerprint)) {
+            return replay(id, fingerprint);
+        }
+
+        ResponseEntity<ApiResponse> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            idempotencyRecordRepository.deleteById(id);
+            throw e;
+        }
+
+        int status = response.getStatusCode().value();
+        if (!isFinal(status)) {
+            idempotencyRecordRepository.deleteById(id);
+            return response;
+        }
+
+        IdempotencyRecord record = idempotencyRecordRepository.findById(id).orElseGet(IdempotencyRecord::new);
+        record.setId(id);
+        record.setFingerprint(fingerprint);
+        record.setStatus(STATUS_COMPLETED);
+        record.setHttpStatus(status);
+        record.setResponseBody(serialize(response.getBody()));
+        record.setExpiresAt(LocalDateTime.now().plusHours(ttlHours));
+        idempotencyRecordRepository.save(record);
+        return response;
+    }
+
+    private boolean tryStart(String id, String fingerprint) {
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setId(id);
+        record.setFingerprint(fingerprint);
+        record.setStatus(STATUS_IN_PROGRESS);
+        record.setExpiresAt(LocalDateTime.now().plusSeconds(leaseSeconds));
+        try {
+            idempotencyRecordRepository.insert(record);
+            return true;
+        } catch (DuplicateKeyException e) {
+            // The TTL monitor runs about once a minute; treat a lapsed key as unused
+            IdempotencyRecord existing = idempotencyRecordRepository.findById(id).orElse(null);
+            if (existing == null || existing.getExpiresAt().isBefore(LocalDateTime.now())) {
+                idempotencyRecordRepository.deleteById(id);
+                try {
+                    idempotencyRecordRepository.insert(record);
+                    return true;
+                } catch (DuplicateKeyException raced) {
+                    return false;
+                }
+            }
+            return false;
+        }
+    }
+
+    private boolean isFinal(int status) {
+        if (status >= 200 && status < 300) {
+            return true;
+        }
+        return status >= 400 && status < 500
+                && status != HttpStatus.REQUEST_TIMEOUT.value()
+                && status != HttpStatus.TOO_MANY_REQUESTS.value();
+    }
+
+    private ResponseEntity<ApiResponse> replay(String id, String fingerprint) {
+        IdempotencyRecord existing = idempotencyRecordRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Idempotency-Key is being processed, please retry"));
+
+        if (!existing.getFingerprint().equals(fingerprint)) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                    .body(new ApiResponse(false, "Idempotency-Key was already used for a different request", null));
+        }
+        if (!STATUS_COMPLETED.equals(existing.getStatus())) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ApiResponse(false, "A request with this Idempotency-Key is still in progress", null));
+        }
+
+        try {
+            return ResponseEntity.status(existing.getHttpStatus())
+                    .header("Idempotent-Replayed", "true")
+                    .body(objectMapper.readValue(existing.getResponseBody(), ApiResponse.class));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to read stored response", e);
+        }
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(serialize(request).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize request", e);
+        }
+    }
+}
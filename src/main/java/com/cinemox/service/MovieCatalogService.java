@@ -0,0 +1,132 @@
+package com.cinemox.service;
+
+import com.cinemox.dto.ApiResponse;
+import com.cinemox.event.MovieChangedEvent;
+import com.cinemox.event.MovieRatingChangedEvent;
+import com.cinemox.model.Movie;
+import com.cinemox.repository.MovieRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * The public movie lists, serialized once per catalog version.
+ *
+ * Each list (all, now showing, coming soon) is kept as the exact response
+ * bytes along with its validators: the ETag is a digest of those bytes and
+ * Last-Modified is the newest Movie.updatedAt in the list, or the time of the
+ * last movie change seen here if later (a deletion leaves no updatedAt
+ * behind). The version is bumped by every MovieChangedEvent, so the next
+ * request rebuilds all lists from one query.
+ *
+ * Events are local to a node, so the lists are also rebuilt once they are
+ * older than cinemox.catalog.max-age-seconds. The ETag depends only on the
+ * content, so every node hands out the same one for the same catalog. Review
+ * ratings change far more often than movies, so they do not bump the version
+ * and show up at that timed rebuild instead.
+ */
+@Service
+public class MovieCatalogService {
+
+    public static final String ALL = "all";
+    public static final String NOW_SHOWING = "now-showing";
+    public static final String COMING_SOON = "coming-soon";
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${cinemox.catalog.max-age-seconds:300}")
+    private long maxAgeSeconds;
+
+    private final AtomicLong version = new AtomicLong();
+    private volatile Instant lastChange = Instant.EPOCH;
+    private volatile Catalog catalog;
+
+    public record CatalogView(byte[] body, String etag, Instant lastModified) {
+    }
+
+    private record Catalog(long version, long builtAtMillis, Map<String, CatalogView> views) {
+    }
+
+    public CatalogView view(String name) {
+        Catalog current = catalog;
+        if (isStale(current)) {
+            current = build();
+        }
+        CatalogView view = current.views().get(name);
+        if (view == null) {
+            throw new RuntimeException("Unknown catalog view: " + name);
+        }
+        return view;
+    }
+
+    @EventListener
+    public void onMovieChanged(MovieChangedEvent event) {
+        lastChange = Instant.now();
+        version.incrementAndGet();
+    }
+
+    @EventListener
+    public void onRatingChanged(MovieRatingChangedEvent event) {
+        // Only moves Last-Modified for the next rebuild, which is at most max-age away
+        lastChange = Instant.now();
+    }
+
+    private boolean isStale(Catalog current) {
+        return current == null
+                || current.version() != version.get()
+                || System.currentTimeMillis() - current.builtAtMillis() > maxAgeSeconds * 1000;
+    }
+
+    private synchronized Catalog build() {
+        Catalog current = catalog;
+        if (!isStale(current)) {
+            return current;
+        }
+
+        // Read the version first so a write during the query triggers another rebuild
+        long building = version.get();
+        List<Movie> movies = movieRepository.findAll();
+        Catalog rebuilt = new Catalog(building, System.currentTimeMillis(), Map.of(
+                ALL, render(movies, movie -> true, "Movies retrieved successfully"),
+                NOW_SHOWING, render(movies, Movie::isNowShowing, "Now showing movies retrieved successfully"),
+                COMING_SOON, render(movies, Movie::isComingSoon, "Coming soon movies retrieved successfully")));
+        catalog = rebuilt;
+        return rebuilt;
+    }
+
+    private CatalogView render(List<Movie> movies, Predicate<Movie> filter, String message) {
+        List<Movie> selected = movies.stream().filter(filter).toList();
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(new ApiResponse(true, message, selected));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize movie catalog", e);
+        }
+
+        Instant lastModified = selected.stream()
+                .map(Movie::getUpdatedAt)
+                .filter(Objects::nonNull)
+                .max(Comparator.naturalOrder())
+                .map(updatedAt -> updatedAt.atZone(ZoneId.systemDefault()).toInstant())
+                .filter(updatedAt -> updatedAt.isAfter(lastChange))
+                .orElse(lastChange);
+        return new CatalogView(body, "\"" + DigestUtils.md5DigestAsHex(body) + "\"", lastModified);
+    }
+}
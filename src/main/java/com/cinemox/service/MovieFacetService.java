@@ -0,0 +1,275 @@
+package com.cinemox.service;
+
+import com.cinemox.event.MovieChangedEvent;
+import com.cinemox.event.MovieRatingChangedEvent;
+import com.cinemox.model.Movie;
+import com.cinemox.repository.MovieRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * Faceted movie browsing from memory.
+ *
+ * Every movie gets a small ordinal and every facet value a bitset of the
+ * movies that have it, so a filter is a few ORs within a dimension and ANDs
+ * across them. Counts for a dimension are taken under all the other filters,
+ * which is what lets a user widen a selection they already made. The release
+ * window and minimum user rating are ranges; they filter by checking the
+ * candidates and are counted per release year and per "N+" rating bucket.
+ *
+ * Movies are re-indexed one at a time on MovieChangedEvent and
+ * MovieRatingChangedEvent, and the whole index is reloaded hourly to pick up
+ * edits made on other nodes.
+ */
+@Service
+public class MovieFacetService {
+
+    public static final String GENRE = "genre";
+    public static final String RATING = "rating";
+    public static final String STATUS = "status";
+    public static final String RELEASE_YEAR = "releaseYear";
+    public static final String USER_RATING = "averageRating";
+
+    private static final int[] USER_RATING_BUCKETS = {4, 3, 2, 1};
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<Movie> byOrdinal = new ArrayList<>();
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+    private final BitSet live = new BitSet();
+    private final Map<String, Map<String, BitSet>> facets = new LinkedHashMap<>();
+
+    public record BrowseQuery(List<String> genres, List<String> ratings, List<String> statuses,
+            LocalDate releasedFrom, LocalDate releasedTo, Double minRating) {
+    }
+
+    public record BrowseResult(int total, List<Movie> movies, Map<String, Map<String, Integer>> facets) {
+    }
+
+    public MovieFacetService() {
+        for (String dimension : List.of(GENRE, RATING, STATUS, RELEASE_YEAR, USER_RATING)) {
+            facets.put(dimension, new TreeMap<>(String.CASE_INSENSITIVE_ORDER));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelay = 3600000, initialDelay = 3600000)
+    public void reload() {
+        List<Movie> movies = movieRepository.findAll();
+        lock.writeLock().lock();
+        try {
+            byOrdinal.clear();
+            ordinals.clear();
+            freeOrdinals.clear();
+            live.clear();
+            facets.values().forEach(Map::clear);
+            movies.forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onMovieChanged(MovieChangedEvent event) {
+        reindex(event.movieId());
+    }
+
+    @EventListener
+    public void onRatingChanged(MovieRatingChangedEvent event) {
+        reindex(event.movieId());
+    }
+
+    private void reindex(String movieId) {
+        if (movieId == null) {
+            reload();
+            return;
+        }
+        Movie movie = movieRepository.findById(movieId).orElse(null);
+        lock.writeLock().lock();
+        try {
+            remove(movieId);
+            if (movie != null) {
+                add(movie);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public BrowseResult browse(BrowseQuery query, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            // One constraint per dimension; a dimension without a filter is left out
+            Map<String, BitSet> constraints = new LinkedHashMap<>();
+            putUnion(constraints, GENRE, query.genres());
+            putUnion(constraints, RATING, query.ratings());
+            putUnion(constraints, STATUS, query.statuses());
+            if (query.releasedFrom() != null || query.releasedTo() != null) {
+                constraints.put(RELEASE_YEAR, matching(movie -> releasedWithin(movie, query)));
+            }
+            if (query.minRating() != null) {
+                constraints.put(USER_RATING, matching(movie ->
+                        movie.getAverageRating() != null && movie.getAverageRating() >= query.minRating()));
+            }
+
+            BitSet selected = intersect(constraints, null);
+            List<Movie> movies = new ArrayList<>(selected.cardinality());
+            selected.stream().forEach(ordinal -> movies.add(byOrdinal.get(ordinal)));
+            movies.sort(Comparator.comparing(Movie::getTitle, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER)));
+
+            Map<String, Map<String, Integer>> counts = new LinkedHashMap<>();
+            facets.forEach((dimension, values) -> {
+                BitSet base = intersect(constraints, dimension);
+                Map<String, Integer> dimensionCounts = new LinkedHashMap<>();
+                values.forEach((value, bits) -> {
+                    BitSet hits = (BitSet) bits.clone();
+                    hits.and(base);
+                    if (!hits.isEmpty()) {
+                        dimensionCounts.put(value, hits.cardinality());
+                    }
+                });
+                counts.put(dimension, dimensionCounts);
+            });
+
+            int from = Math.min(Math.max(offset, 0), movies.size());
+            int to = Math.min(from + limit, movies.size());
+            return new BrowseResult(movies.size(), List.copyOf(movies.subList(from, to)), counts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void add(Movie movie) {
+        int ordinal;
+        if (!freeOrdinals.isEmpty()) {
+            ordinal = freeOrdinals.pop();
+            byOrdinal.set(ordinal, movie);
+        } else {
+            ordinal = byOrdinal.size();
+            byOrdinal.add(movie);
+        }
+        ordinals.put(movie.getId(), ordinal);
+        live.set(ordinal);
+        valuesOf(movie).forEach((dimension, values) -> values.forEach(value ->
+                facets.get(dimension).computeIfAbsent(value, v -> new BitSet()).set(ordinal)));
+    }
+
+    private void remove(String movieId) {
+        Integer ordinal = ordinals.remove(movieId);
+        if (ordinal == null) {
+            return;
+        }
+        valuesOf(byOrdinal.get(ordinal)).forEach((dimension, values) -> values.forEach(value -> {
+            Map<String, BitSet> dimensionValues = facets.get(dimension);
+            BitSet bits = dimensionValues.get(value);
+            if (bits != null) {
+                bits.clear(ordinal);
+                if (bits.isEmpty()) {
+                    dimensionValues.remove(value);
+                }
+            }
+        }));
+        live.clear(ordinal);
+        byOrdinal.set(ordinal, null);
+        freeOrdinals.push(ordinal);
+    }
+
+    private Map<String, List<String>> valuesOf(Movie movie) {
+        Map<String, List<String>> values = new LinkedHashMap<>();
+
+        List<String> genres = new ArrayList<>();
+        if (movie.getGenre() != null) {
+            for (String genre : movie.getGenre().split(",")) {
+                if (!genre.isBlank()) {
+                    genres.add(genre.trim());
+                }
+            }
+        }
+        values.put(GENRE, genres);
+        values.put(RATING, movie.getRating() != null && !movie.getRating().isBlank()
+                ? List.of(movie.getRating().trim()) : List.of());
+
+        List<String> statuses = new ArrayList<>();
+        if (movie.isNowShowing()) {
+            statuses.add(MovieCatalogService.NOW_SHOWING);
+        }
+        if (movie.isComingSoon()) {
+            statuses.add(MovieCatalogService.COMING_SOON);
+        }
+        values.put(STATUS, statuses);
+        values.put(RELEASE_YEAR, movie.getReleaseDate() != null
+                ? List.of(String.valueOf(movie.getReleaseDate().getYear())) : List.of());
+
+        // Buckets are cumulative: a 4.2 movie counts towards 4+, 3+, 2+ and 1+
+        List<String> buckets = new ArrayList<>();
+        if (movie.getAverageRating() != null) {
+            for (int bucket : USER_RATING_BUCKETS) {
+                if (movie.getAverageRating() >= bucket) {
+                    buckets.add(bucket + "+");
+                }
+            }
+        }
+        values.put(USER_RATING, buckets);
+        return values;
+    }
+
+    private void putUnion(Map<String, BitSet> constraints, String dimension, List<String> selected) {
+        if (selected == null || selected.isEmpty()) {
+            return;
+        }
+        BitSet union = new BitSet();
+        for (String value : selected) {
+            BitSet bits = facets.get(dimension).get(value.trim());
+            if (bits != null) {
+                union.or(bits);
+            }
+        }
+        constraints.put(dimension, union);
+    }
+
+    private BitSet matching(Predicate<Movie> predicate) {
+        BitSet bits = new BitSet();
+        live.stream().filter(ordinal -> predicate.test(byOrdinal.get(ordinal))).forEach(bits::set);
+        return bits;
+    }
+
+    private BitSet intersect(Map<String, BitSet> constraints, String skipDimension) {
+        BitSet result = (BitSet) live.clone();
+        constraints.forEach((dimension, bits) -> {
+            if (!dimension.equals(skipDimension)) {
+                result.and(bits);
+            }
+        });
+        return result;
+    }
+
+    private boolean releasedWithin(Movie movie, BrowseQuery query) {
+        if (movie.getReleaseDate() == null) {
+            return false;
+        }
+        LocalDate released = movie.getReleaseDate().toLocalDate();
+        return (query.releasedFrom() == null || !released.isBefore(query.releasedFrom()))
+                && (query.releasedTo() == null || !released.isAfter(query.releasedTo()));
+    }
+}
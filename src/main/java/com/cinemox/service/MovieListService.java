@@ -0,0 +1,123 @@
+package com.cinemox.service;
+
+import com.cinemox.model.Movie;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Pages through the movie list for grid views.
+ *
+ * Pages are keyed on _id rather than skipped over, so a page costs the same
+ * however deep it is, and only the requested fields are read from MongoDB.
+ * The cursor is the last id of the previous page, opaque to clients.
+ */
+@Service
+public class MovieListService {
+
+    public static final List<String> LIST_FIELDS = List.of("title", "posterUrl", "rating", "averageRating");
+
+    private static final int MAX_LIMIT = 100;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * @param filter   MovieCatalogService view name, e.g. now-showing
+     * @param fields   comma-separated Movie fields, or null for LIST_FIELDS
+     * @return movies (id plus the requested fields) and nextCursor, null on the last page
+     */
+    public Map<String, Object> page(String filter, String cursor, int limit, String fields) {
+        int size = Math.min(Math.max(limit, 1), MAX_LIMIT);
+        Set<String> selected = parseFields(fields);
+
+        Criteria criteria = switch (filter) {
+            case MovieCatalogService.NOW_SHOWING -> Criteria.where("nowShowing").is(true);
+            case MovieCatalogService.COMING_SOON -> Criteria.where("comingSoon").is(true);
+            default -> new Criteria();
+        };
+        if (cursor != null && !cursor.isBlank()) {
+            criteria = criteria.and("_id").gt(decodeCursor(cursor));
+        }
+
+        Query query = new Query(criteria).with(Sort.by("_id")).limit(size + 1);
+        query.fields().include(selected.toArray(String[]::new));
+        List<Movie> movies = mongoTemplate.find(query, Movie.class);
+
+        boolean more = movies.size() > size;
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (Movie movie : more ? movies.subList(0, size) : movies) {
+            items.add(project(movie, selected));
+        }
+
+        Map<String, Object> page = new LinkedHashMap<>();
+        page.put("movies", items);
+        page.put("nextCursor", more ? encodeCursor(movies.get(size - 1).getId()) : null);
+        return page;
+    }
+
+    private Set<String> parseFields(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return new LinkedHashSet<>(LIST_FIELDS);
+        }
+        MongoPersistentEntity<?> entity =
+                mongoTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(Movie.class);
+        Set<String> selected = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty() || name.equals("id")) {
+                continue;
+            }
+            if (entity.getPersistentProperty(name) == null) {
+                throw new RuntimeException("Unknown field: " + name);
+            }
+            selected.add(name);
+        }
+        return selected;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> project(Movie movie, Set<String> selected) {
+        // Unread fields hold Java defaults on the entity, so copy only the selected ones
+        Map<String, Object> full = objectMapper.convertValue(movie, Map.class);
+        Map<String, Object> item = new LinkedHashMap<>();
+        item.put("id", movie.getId());
+        for (String field : selected) {
+            item.put(field, full.get(field));
+        }
+        return item;
+    }
+
+    private String encodeCursor(String id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(id.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Object decodeCursor(String cursor) {
+        String id;
+        try {
+            id = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+        // Ids generated by MongoDB are stored as ObjectIds, others as strings
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+}
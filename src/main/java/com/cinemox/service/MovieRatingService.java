@@ -0,0 +1,269 @@
+package com.cinemox.service;
+
+import com.cinemox.event.MovieRatingChangedEvent;
+import com.cinemox.model.Movie;
+import com.cinemox.model.Review;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.GroupOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps each movie's review aggregates (totalReviews, ratingSum, a per-star
+ * histogram and averageRating) on the movie itself, so stats and lists read
+ * them without touching the reviews.
+ *
+ * A review write adjusts the counters with one $inc. The average cannot be
+ * derived inside that update, so it is written next, only if the counters
+ * still hold the values the $inc returned; when two reviews race, the later
+ * one sets the average. A rebuild recomputes everything from the reviews
+ * with one aggregation, at startup, nightly and on demand. Its writes only
+ * land on movies whose counters did not move meanwhile; a movie reviewed
+ * during the pass is recounted on its own, so no $inc is lost.
+ *
+ * Changes are announced with MovieRatingChangedEvent, which only the browse
+ * and search indexes follow; the catalog picks up new averages when it is
+ * next rebuilt and showtimes do not show ratings at all.
+ */
+@Service
+public class MovieRatingService {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private volatile LocalDateTime lastRebuildAt;
+    private volatile long lastRebuildMovies;
+    private volatile String lastError;
+
+    /**
+     * Applies one review change to the movie's aggregates.
+     *
+     * @param addedRating   rating of a new or edited review, or null
+     * @param removedRating rating the review had before (edit, delete), or null
+     */
+    public void recordChange(String movieId, Integer addedRating, Integer removedRating) {
+        if (movieId == null || (addedRating == null && removedRating == null)) {
+            return;
+        }
+
+        Map<Integer, Integer> starDeltas = new HashMap<>();
+        int countDelta = 0;
+        int sumDelta = 0;
+        if (addedRating != null) {
+            starDeltas.merge(addedRating, 1, Integer::sum);
+            countDelta++;
+            sumDelta += addedRating;
+        }
+        if (removedRating != null) {
+            starDeltas.merge(removedRating, -1, Integer::sum);
+            countDelta--;
+            sumDelta -= removedRating;
+        }
+
+        Update update = new Update().inc("totalReviews", countDelta).inc("ratingSum", sumDelta);
+        starDeltas.forEach((star, delta) -> {
+            if (delta != 0) {
+                update.inc("ratingHistogram." + star, delta);
+            }
+        });
+        Movie updated = mongoTemplate.findAndModify(
+                new Query(Criteria.where("_id").is(movieId)),
+                update,
+                FindAndModifyOptions.options().returnNew(true),
+                Movie.class);
+        if (updated == null) {
+            return;
+        }
+
+        int count = updated.getTotalReviews() != null ? updated.getTotalReviews() : 0;
+        int sum = updated.getRatingSum() != null ? updated.getRatingSum() : 0;
+        mongoTemplate.updateFirst(
+                new Query(Criteria.where("_id").is(movieId).and("totalReviews").is(count).and("ratingSum").is(sum)),
+                Update.update("averageRating", average(sum, count)),
+                Movie.class);
+        eventPublisher.publishEvent(new MovieRatingChangedEvent(movieId));
+    }
+
+    public Map<String, Object> stats(Movie movie) {
+        int count = movie.getTotalReviews() != null ? movie.getTotalReviews() : 0;
+        Map<String, Integer> histogram = new LinkedHashMap<>();
+        for (int star = 1; star <= 5; star++) {
+            Integer reviews = movie.getRatingHistogram() != null
+                    ? movie.getRatingHistogram().get(String.valueOf(star)) : null;
+            histogram.put(String.valueOf(star), reviews != null ? reviews : 0);
+        }
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("averageRating", movie.getAverageRating() != null ? movie.getAverageRating() : 0);
+        stats.put("totalReviews", count);
+        stats.put("histogram", histogram);
+        return stats;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        start();
+    }
+
+    @Scheduled(cron = "${cinemox.ratings.rebuild.cron:0 45 3 * * *}")
+    public void rebuildNightly() {
+        start();
+    }
+
+    /**
+     * Starts a rebuild in the background unless one is already running.
+     *
+     * @return false if a rebuild was already in progress
+     */
+    public boolean start() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread.ofVirtual().name("rating-rebuild").start(() -> {
+            try {
+                lastRebuildMovies = rebuild();
+                lastError = null;
+            } catch (Exception e) {
+                lastError = e.getMessage();
+                System.err.println("Rating rebuild failed: " + e.getMessage());
+            } finally {
+                lastRebuildAt = LocalDateTime.now();
+                rebuilding.set(false);
+            }
+        });
+        return true;
+    }
+
+    public Map<String, Object> progress() {
+        Map<String, Object> progress = new LinkedHashMap<>();
+        progress.put("running", rebuilding.get());
+        progress.put("lastRebuildAt", lastRebuildAt);
+        progress.put("movies", lastRebuildMovies);
+        progress.put("lastError", lastError);
+        return progress;
+    }
+
+    private long rebuild() {
+        List<Document> seen = mongoTemplate.find(countersOf(new Query()), Document.class, moviesCollection());
+        Map<String, Document> totals = new HashMap<>();
+        for (Document row : mongoTemplate.aggregate(totalsOf(null), Review.class, Document.class)) {
+            totals.put(String.valueOf(row.get("_id")), row);
+        }
+
+        // A review $inc landing during the pass makes its movie's write miss; those are recounted below
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Movie.class);
+        Map<Object, Document> written = new HashMap<>();
+        for (Document counters : seen) {
+            Update update = totalsUpdate(totals.get(String.valueOf(counters.get("_id"))));
+            bulk.updateOne(unchanged(counters), update);
+            written.put(counters.get("_id"), update.getUpdateObject().get("$set", Document.class));
+        }
+        boolean changed = !seen.isEmpty() && bulk.execute().getModifiedCount() > 0;
+
+        Query writtenMovies = countersOf(new Query(Criteria.where("_id").in(written.keySet())));
+        for (Document after : mongoTemplate.find(writtenMovies, Document.class, moviesCollection())) {
+            Document expected = written.get(after.get("_id"));
+            if (!Objects.equals(after.get("totalReviews"), expected.get("totalReviews"))
+                    || !Objects.equals(after.get("ratingSum"), expected.get("ratingSum"))) {
+                changed |= recount(after.get("_id"));
+            }
+        }
+
+        // Every list and index holding ratings may be stale if anything was corrected
+        if (changed) {
+            eventPublisher.publishEvent(new MovieRatingChangedEvent(null));
+        }
+        return seen.size();
+    }
+
+    /**
+     * Recomputes one movie whose counters moved while the full rebuild ran.
+     */
+    private boolean recount(Object movieId) {
+        for (int attempt = 0; attempt < 3; attempt++) {
+            Document counters = mongoTemplate.findOne(countersOf(new Query(Criteria.where("_id").is(movieId))),
+                    Document.class, moviesCollection());
+            if (counters == null) {
+                return false;
+            }
+            Document row = mongoTemplate.aggregate(totalsOf(String.valueOf(movieId)), Review.class, Document.class)
+                    .getUniqueMappedResult();
+            UpdateResult result = mongoTemplate.updateFirst(unchanged(counters), totalsUpdate(row), Movie.class);
+            if (result.getMatchedCount() == 1) {
+                return result.getModifiedCount() > 0;
+            }
+        }
+        System.err.println("Rating rebuild left movie " + movieId + " to the next run: its reviews kept changing");
+        return false;
+    }
+
+    private Aggregation totalsOf(String movieId) {
+        GroupOperation group = Aggregation.group("movieId").count().as("count").sum("rating").as("sum");
+        for (int star = 1; star <= 5; star++) {
+            group = group.sum(ConditionalOperators.when(Criteria.where("rating").is(star)).then(1).otherwise(0))
+                    .as("star" + star);
+        }
+        return movieId == null
+                ? Aggregation.newAggregation(group)
+                : Aggregation.newAggregation(Aggregation.match(Criteria.where("movieId").is(movieId)), group);
+    }
+
+    private Update totalsUpdate(Document row) {
+        int count = row != null ? ((Number) row.get("count")).intValue() : 0;
+        int sum = row != null ? ((Number) row.get("sum")).intValue() : 0;
+        Map<String, Integer> histogram = new LinkedHashMap<>();
+        for (int star = 1; star <= 5; star++) {
+            histogram.put(String.valueOf(star), row != null ? ((Number) row.get("star" + star)).intValue() : 0);
+        }
+        return new Update()
+                .set("totalReviews", count)
+                .set("ratingSum", sum)
+                .set("ratingHistogram", histogram)
+                .set("averageRating", average(sum, count));
+    }
+
+    // Raw documents, so a movie that never had counters reads as null rather than the entity's 0
+    private Query countersOf(Query query) {
+        query.fields().include("_id").include("totalReviews").include("ratingSum");
+        return query;
+    }
+
+    private Query unchanged(Document counters) {
+        return new Query(Criteria.where("_id").is(counters.get("_id"))
+                .and("totalReviews").is(counters.get("totalReviews"))
+                .and("ratingSum").is(counters.get("ratingSum")));
+    }
+
+    private String moviesCollection() {
+        return mongoTemplate.getCollectionName(Movie.class);
+    }
+
+    private static double average(int sum, int count) {
+        return count > 0 ? Math.round(sum * 10.0 / count) / 10.0 : 0.0;
+    }
+}
@@ -0,0 +1,206 @@
+package com.cinemox.service;
+
+import com.cinemox.event.MovieChangedEvent;
+import com.cinemox.event.MovieRatingChangedEvent;
+import com.cinemox.model.Movie;
+import com.cinemox.repository.MovieRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over movie title, director, cast and genre.
+ *
+ * Text is lower-cased, stripped of accents and split into words. Every
+ * prefix of every word is a key, so "star wa" finds "Star Wars" while the
+ * user is still typing. A posting holds the best field weight of the movie
+ * for that key, doubled when the key is the whole word. A query matches
+ * movies that have all of its words; they are ranked by the summed weights,
+ * with a bonus when the title starts with the query.
+ *
+ * The index follows admin edits through MovieChangedEvent and is reloaded
+ * hourly to pick up edits made on other nodes.
+ */
+@Service
+public class MovieSearchService {
+
+    private static final int TITLE_WEIGHT = 8;
+    private static final int PEOPLE_WEIGHT = 4;
+    private static final int GENRE_WEIGHT = 2;
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    private final Map<String, Movie> movies = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Integer>> postings = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> keysByMovie = new HashMap<>(); // guarded by this
+    private volatile boolean ready;
+
+    public record Suggestion(String id, String title, String posterUrl, String genre) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelay = 3600000, initialDelay = 3600000)
+    public synchronized void reload() {
+        Set<String> seen = new HashSet<>();
+        for (Movie movie : movieRepository.findAll()) {
+            index(movie);
+            seen.add(movie.getId());
+        }
+        for (String movieId : new ArrayList<>(movies.keySet())) {
+            if (!seen.contains(movieId)) {
+                unindex(movieId);
+            }
+        }
+        ready = true;
+    }
+
+    @EventListener
+    public synchronized void onMovieChanged(MovieChangedEvent event) {
+        if (event.movieId() == null) {
+            reload();
+            return;
+        }
+        movieRepository.findById(event.movieId())
+                .ifPresentOrElse(this::index, () -> unindex(event.movieId()));
+    }
+
+    @EventListener
+    public synchronized void onRatingChanged(MovieRatingChangedEvent event) {
+        if (event.movieId() == null) {
+            reload();
+            return;
+        }
+        // Ratings are not searched on; swap in the movie so results carry the new average
+        movieRepository.findById(event.movieId())
+                .ifPresent(movie -> movies.computeIfPresent(movie.getId(), (id, indexed) -> movie));
+    }
+
+    /**
+     * Movies matching every word of the query, best match first.
+     */
+    public List<Movie> search(String query, int limit) {
+        if (!ready) {
+            return movieRepository.findByTitleContainingIgnoreCase(query).stream().limit(limit).toList();
+        }
+        return rank(query, limit);
+    }
+
+    public List<Suggestion> suggest(String query, int limit) {
+        return search(query, limit).stream()
+                .map(movie -> new Suggestion(movie.getId(), movie.getTitle(), movie.getPosterUrl(), movie.getGenre()))
+                .toList();
+    }
+
+    private List<Movie> rank(String query, int limit) {
+        List<String> words = tokenize(query);
+        if (words.isEmpty()) {
+            return List.of();
+        }
+
+        // Intersect starting from the rarest word to keep the candidate set small
+        List<Map<String, Integer>> lists = new ArrayList<>();
+        for (String word : words) {
+            Map<String, Integer> list = postings.get(word);
+            if (list == null) {
+                return List.of();
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(Map::size));
+
+        Map<String, Integer> scores = new HashMap<>(lists.get(0));
+        for (Map<String, Integer> list : lists.subList(1, lists.size())) {
+            scores.entrySet().removeIf(entry -> !list.containsKey(entry.getKey()));
+            scores.replaceAll((movieId, score) -> score + list.getOrDefault(movieId, 0));
+        }
+
+        String phrase = String.join(" ", words);
+        List<Movie> results = new ArrayList<>();
+        Map<String, Integer> ranked = new HashMap<>();
+        scores.forEach((movieId, score) -> {
+            Movie movie = movies.get(movieId);
+            if (movie == null) {
+                return;
+            }
+            boolean titleStarts = String.join(" ", tokenize(movie.getTitle())).startsWith(phrase);
+            ranked.put(movieId, titleStarts ? score + 2 * TITLE_WEIGHT : score);
+            results.add(movie);
+        });
+        results.sort(Comparator.comparingInt((Movie movie) -> -ranked.get(movie.getId()))
+                .thenComparing(Movie::getTitle, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER)));
+        return results.size() > limit ? List.copyOf(results.subList(0, limit)) : results;
+    }
+
+    private void index(Movie movie) {
+        unindex(movie.getId());
+
+        Map<String, Integer> weights = new HashMap<>();
+        addField(weights, movie.getTitle(), TITLE_WEIGHT);
+        addField(weights, movie.getDirector(), PEOPLE_WEIGHT);
+        if (movie.getCast() != null) {
+            movie.getCast().forEach(name -> addField(weights, name, PEOPLE_WEIGHT));
+        }
+        addField(weights, movie.getGenre(), GENRE_WEIGHT);
+
+        weights.forEach((key, weight) ->
+                postings.computeIfAbsent(key, k -> new ConcurrentHashMap<>()).put(movie.getId(), weight));
+        keysByMovie.put(movie.getId(), weights.keySet());
+        movies.put(movie.getId(), movie);
+    }
+
+    private void unindex(String movieId) {
+        Set<String> keys = keysByMovie.remove(movieId);
+        if (keys != null) {
+            for (String key : keys) {
+                postings.computeIfPresent(key, (k, list) -> {
+                    list.remove(movieId);
+                    return list.isEmpty() ? null : list;
+                });
+            }
+        }
+        movies.remove(movieId);
+    }
+
+    private void addField(Map<String, Integer> weights, String text, int weight) {
+        for (String word : tokenize(text)) {
+            for (int length = 1; length <= word.length(); length++) {
+                int score = length == word.length() ? 2 * weight : weight;
+                weights.merge(word.substring(0, length), score, Math::max);
+            }
+        }
+    }
+
+    private static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        List<String> words = new ArrayList<>();
+        for (String word : SEPARATORS.split(folded)) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+}
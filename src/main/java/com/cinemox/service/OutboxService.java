@@ -0,0 +1,265 @@
+package com.cinemox.service;
+
+import com.cinemox.model.Booking;
+import com.cinemox.model.OutboxEvent;
+import com.cinemox.repository.BookingRepository;
+import com.cinemox.repository.OutboxEventRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Transactional outbox for work that must follow a booking but must not
+ * slow it down: the confirmation email with its rendered ticket QR.
+ *
+ * Events live in MongoDB and are claimed with findAndModify, so they survive
+ * restarts and are processed once per claim even with several app nodes.
+ * A claim that is not finished before its lock expires is picked up again;
+ * every claim carries a fresh token and only the holder of the current one
+ * can finish the event, so a worker that overran its lock cannot overwrite
+ * the outcome of the node that took over.
+ */
+@Service
+public class OutboxService {
+
+    public static final String BOOKING_CONFIRMED = "BOOKING_CONFIRMED";
+    public static final String BOOKING_GROUP_CONFIRMED = "BOOKING_GROUP_CONFIRMED";
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_PROCESSING = "PROCESSING";
+    public static final String STATUS_DONE = "DONE";
+    public static final String STATUS_FAILED = "FAILED";
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${cinemox.outbox.workers:4}")
+    private int workerCount;
+
+    @Value("${cinemox.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${cinemox.outbox.retry-base-seconds:30}")
+    private long retryBaseSeconds;
+
+    @Value("${cinemox.outbox.lock-seconds:300}")
+    private long lockSeconds;
+
+    @Value("${cinemox.outbox.orphan-grace-seconds:300}")
+    private long orphanGraceSeconds;
+
+    private ExecutorService workers;
+    private Semaphore capacity;
+
+    @PostConstruct
+    public void start() {
+        workers = Executors.newFixedThreadPool(workerCount);
+        capacity = new Semaphore(workerCount);
+    }
+
+    @PreDestroy
+    public void stop() {
+        // Unfinished claims are retried by any node once their lock expires
+        workers.shutdownNow();
+    }
+
+    /**
+     * Records an event. Call this before writing the document it refers to:
+     * an event whose document never appears is dropped after a grace period,
+     * while a document whose event was never written would be silently lost.
+     */
+    public OutboxEvent enqueue(String type, String aggregateId) {
+        OutboxEvent event = new OutboxEvent();
+        event.setType(type);
+        event.setAggregateId(aggregateId);
+        event.setStatus(STATUS_PENDING);
+        return outboxEventRepository.save(event);
+    }
+
+    /**
+     * Withdraws an event whose document will not be written after all. An
+     * event a worker has already claimed is left to the orphan grace period.
+     */
+    public void discard(OutboxEvent event) {
+        mongoTemplate.remove(new Query(Criteria.where("_id").is(event.getId()).and("status").is(STATUS_PENDING)),
+                OutboxEvent.class);
+    }
+
+    /**
+     * Starts dispatching right away instead of waiting for the next poll.
+     */
+    @Async
+    public void dispatchNow() {
+        dispatch();
+    }
+
+    @Scheduled(fixedDelayString = "${cinemox.outbox.poll-interval-ms:1000}")
+    public void dispatch() {
+        while (capacity.tryAcquire()) {
+            OutboxEvent event;
+            try {
+                event = claimNext();
+            } catch (RuntimeException e) {
+                capacity.release();
+                throw e;
+            }
+            if (event == null) {
+                capacity.release();
+                return;
+            }
+            workers.execute(() -> {
+                try {
+                    process(event);
+                } finally {
+                    capacity.release();
+                }
+            });
+        }
+    }
+
+    public Map<String, Long> stats() {
+        return Map.of(
+                "pending", outboxEventRepository.countByStatus(STATUS_PENDING),
+                "processing", outboxEventRepository.countByStatus(STATUS_PROCESSING),
+                "failed", outboxEventRepository.countByStatus(STATUS_FAILED));
+    }
+
+    private OutboxEvent claimNext() {
+        LocalDateTime now = LocalDateTime.now();
+        Query query = new Query(new Criteria().orOperator(
+                Criteria.where("status").is(STATUS_PENDING).and("nextAttemptAt").lte(now),
+                Criteria.where("status").is(STATUS_PROCESSING).and("lockedUntil").lt(now)))
+                .with(Sort.by(Sort.Direction.ASC, "nextAttemptAt"));
+
+        Update update = new Update()
+                .set("status", STATUS_PROCESSING)
+                .set("lockedUntil", now.plusSeconds(lockSeconds))
+                .set("claimToken", UUID.randomUUID().toString())
+                .inc("attempts", 1);
+
+        return mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), OutboxEvent.class);
+    }
+
+    private void process(OutboxEvent event) {
+        try {
+            boolean done = switch (event.getType()) {
+                case BOOKING_CONFIRMED -> handleBookingConfirmed(event);
+                case BOOKING_GROUP_CONFIRMED -> handleBookingGroupConfirmed(event);
+                default -> throw new IllegalStateException("Unknown outbox event type: " + event.getType());
+            };
+            if (done) {
+                finish(event, STATUS_DONE, null, null);
+            } else {
+                finish(event, STATUS_PENDING, "Waiting for " + event.getAggregateId(),
+                        LocalDateTime.now().plusSeconds(retryBaseSeconds));
+            }
+        } catch (Exception e) {
+            System.err.println("Outbox event " + event.getId() + " failed: " + e.getMessage());
+            if (event.getAttempts() >= maxAttempts) {
+                finish(event, STATUS_FAILED, e.getMessage(), null);
+            } else {
+                long delay = retryBaseSeconds << Math.min(event.getAttempts() - 1, 7);
+                finish(event, STATUS_PENDING, e.getMessage(), LocalDateTime.now().plusSeconds(delay));
+            }
+        }
+    }
+
+    private void finish(OutboxEvent event, String status, String error, LocalDateTime nextAttemptAt) {
+        Update update = new Update()
+                .set("status", status)
+                .set("lastError", error)
+                .unset("lockedUntil")
+                .unset("claimToken");
+        if (nextAttemptAt != null) {
+            update.set("nextAttemptAt", nextAttemptAt);
+        }
+        if (STATUS_DONE.equals(status)) {
+            update.set("processedAt", LocalDateTime.now());
+        }
+        Query claim = new Query(Criteria.where("_id").is(event.getId()).and("claimToken").is(event.getClaimToken()));
+        if (mongoTemplate.updateFirst(claim, update, OutboxEvent.class).getModifiedCount() == 0) {
+            System.err.println("Outbox event " + event.getId() + " was reclaimed by another worker; result dropped");
+        }
+    }
+
+    /**
+     * Sends the confirmation email with the ticket QR inline.
+     *
+     * @return false if the booking is not written yet and the event should wait
+     */
+    private boolean handleBookingConfirmed(OutboxEvent event) {
+        Booking booking = bookingRepository.findById(event.getAggregateId()).orElse(null);
+        if (booking == null) {
+            // The booking insert that followed this event failed; nothing to send
+            return event.getCreatedAt().plusSeconds(orphanGraceSeconds).isBefore(LocalDateTime.now());
+        }
+
+        byte[] barcodePng = ticketService.renderQr(booking).png();
+
+        emailService.sendBookingConfirmation(
+                booking.getUserEmail(),
+                booking.getBookingCode(),
+                booking.getMovieTitle(),
+                booking.getShowDate(),
+                booking.getShowTime(),
+                booking.getTheater(),
+                String.join(", ", booking.getSeats()),
+                booking.getTotalPrice(),
+                barcodePng);
+        return true;
+    }
+
+    /**
+     * Sends one email for a whole group order, with every ticket QR inline.
+     */
+    private boolean handleBookingGroupConfirmed(OutboxEvent event) {
+        List<Booking> bookings = bookingRepository.findByGroupCode(event.getAggregateId());
+        if (bookings.isEmpty()) {
+            return event.getCreatedAt().plusSeconds(orphanGraceSeconds).isBefore(LocalDateTime.now());
+        }
+
+        Map<String, byte[]> qrPngs = new LinkedHashMap<>();
+        for (Booking booking : bookings) {
+            qrPngs.put(booking.getBookingCode(), ticketService.renderQr(booking).png());
+        }
+
+        emailService.sendGroupBookingConfirmation(
+                bookings.get(0).getUserEmail(),
+                event.getAggregateId(),
+                bookings,
+                qrPngs);
+        return true;
+    }
+}
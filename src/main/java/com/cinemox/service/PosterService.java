@@ -0,0 +1,299 @@
+package com.cinemox.service;
+
+import com.cinemox.event.MovieChangedEvent;
+import com.cinemox.model.Movie;
+import com.cinemox.repository.MovieRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Poster images resized to a few fixed widths and kept on disk.
+ *
+ * An original is fetched once, from the web or from a local path such as
+ * /uploads/..., and stored under the SHA-256 of its bytes. Its variants are
+ * named after that hash, the width and the format, so a file never changes
+ * once written and can be cached for good by anyone who knows its hash. A
+ * small pointer file per poster URL remembers which original it resolved to,
+ * so a restart does not refetch anything.
+ *
+ * Browsers that accept WebP get it when an ImageIO WebP writer is on the
+ * classpath; everything else gets JPEG, or PNG when the poster has
+ * transparency.
+ */
+@Service
+public class PosterService {
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Value("${cinemox.posters.cache-dir:data/poster-cache}")
+    private String cacheDir;
+
+    // Runtime files addressed by URL path, e.g. /uploads/...; bundled images come from the classpath
+    @Value("${cinemox.posters.local-root:data/static}")
+    private String localRoot;
+
+    @Value("${cinemox.posters.widths:160,320,480,780}")
+    private List<Integer> widths;
+
+    @Value("${cinemox.posters.max-source-bytes:10485760}")
+    private int maxSourceBytes;
+
+    @Value("${cinemox.posters.max-source-pixels:40000000}")
+    private long maxSourcePixels;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+
+    private final Map<String, Optional<String>> posterUrls = new ConcurrentHashMap<>();
+    private final Map<String, Object> locks = new ConcurrentHashMap<>();
+
+    public record Variant(Path file, String hash, String contentType) {
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        widths = widths.stream().distinct().sorted().toList();
+        Files.createDirectories(Paths.get(cacheDir, "originals"));
+        Files.createDirectories(Paths.get(cacheDir, "sources"));
+        Files.createDirectories(Paths.get(cacheDir, "variants"));
+    }
+
+    @EventListener
+    public void onMovieChanged(MovieChangedEvent event) {
+        if (event.movieId() == null) {
+            posterUrls.clear();
+        } else {
+            posterUrls.remove(event.movieId());
+        }
+    }
+
+    /**
+     * The movie's poster at the smallest configured width of at least
+     * {@code width}, never wider than the original.
+     */
+    public Variant poster(String movieId, int width, boolean acceptsWebp) throws IOException {
+        String posterUrl = posterUrls.computeIfAbsent(movieId, id ->
+                        movieRepository.findById(id).map(Movie::getPosterUrl).filter(url -> !url.isBlank()))
+                .orElseThrow(() -> new RuntimeException("Poster not found"));
+
+        String hash = originalHash(posterUrl);
+        int target = widths.stream().filter(w -> w >= width).findFirst().orElse(widths.get(widths.size() - 1));
+        String format = acceptsWebp && ImageIO.getImageWritersByFormatName("webp").hasNext() ? "webp" : null;
+
+        // The format is only known for sure once the original is decoded, so look for each candidate
+        for (String candidate : format != null ? List.of(format) : List.of("jpg", "png")) {
+            Path file = variantPath(hash, target, candidate);
+            if (Files.exists(file)) {
+                return new Variant(file, hash, contentType(candidate));
+            }
+        }
+
+        synchronized (locks.computeIfAbsent(hash + "-" + target, k -> new Object())) {
+            BufferedImage original = decode(originalPath(hash));
+            if (format == null) {
+                format = original.getColorModel().hasAlpha() ? "png" : "jpg";
+            }
+            Path file = variantPath(hash, target, format);
+            if (!Files.exists(file)) {
+                BufferedImage resized = resize(original, target, format);
+                Path temp = Files.createTempFile(file.getParent(), "variant", ".tmp");
+                if (!ImageIO.write(resized, format, temp.toFile())) {
+                    Files.deleteIfExists(temp);
+                    throw new RuntimeException("No image writer for " + format);
+                }
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return new Variant(file, hash, contentType(format));
+        }
+    }
+
+    private String originalHash(String posterUrl) throws IOException {
+        Path pointer = Paths.get(cacheDir, "sources", sha256(posterUrl.getBytes(StandardCharsets.UTF_8)));
+        if (Files.exists(pointer)) {
+            String hash = Files.readString(pointer).trim();
+            if (Files.exists(originalPath(hash))) {
+                return hash;
+            }
+        }
+
+        synchronized (locks.computeIfAbsent(posterUrl, k -> new Object())) {
+            if (Files.exists(pointer)) {
+                String hash = Files.readString(pointer).trim();
+                if (Files.exists(originalPath(hash))) {
+                    return hash;
+                }
+            }
+            byte[] bytes = load(posterUrl);
+            String hash = sha256(bytes);
+            writeAtomically(originalPath(hash), bytes);
+            writeAtomically(pointer, hash.getBytes(StandardCharsets.UTF_8));
+            return hash;
+        }
+    }
+
+    private byte[] load(String posterUrl) throws IOException {
+        if (!posterUrl.startsWith("http://") && !posterUrl.startsWith("https://")) {
+            byte[] bytes = loadLocal(posterUrl);
+            if (bytes.length > maxSourceBytes) {
+                throw new RuntimeException("Poster is larger than " + maxSourceBytes + " bytes");
+            }
+            return bytes;
+        }
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create(posterUrl))
+                .timeout(Duration.ofSeconds(15))
+                .GET()
+                .build();
+        HttpResponse<InputStream> response;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Poster fetch interrupted", e);
+        }
+
+        // Read at most one byte past the limit, so an oversized or endless body is never buffered
+        try (InputStream body = response.body()) {
+            if (response.statusCode() != 200) {
+                throw new RuntimeException("Poster fetch failed with status " + response.statusCode());
+            }
+            if (response.headers().firstValueAsLong("Content-Length").orElse(0) > maxSourceBytes) {
+                throw new RuntimeException("Poster is larger than " + maxSourceBytes + " bytes");
+            }
+            byte[] bytes = body.readNBytes(maxSourceBytes + 1);
+            if (bytes.length > maxSourceBytes) {
+                throw new RuntimeException("Poster is larger than " + maxSourceBytes + " bytes");
+            }
+            return bytes;
+        }
+    }
+
+    /**
+     * Decodes an original after checking its dimensions from the header, so a
+     * small file that expands to a huge bitmap is refused before decoding.
+     */
+    private BufferedImage decode(Path file) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = in != null ? ImageIO.getImageReaders(in) : Collections.emptyIterator();
+            if (!readers.hasNext()) {
+                throw new RuntimeException("Poster is not a readable image");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > maxSourcePixels) {
+                    throw new RuntimeException("Poster is larger than " + maxSourcePixels + " pixels");
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private byte[] loadLocal(String posterUrl) throws IOException {
+        String relative = posterUrl.startsWith("file:") ? posterUrl.substring("file:".length()) : posterUrl;
+        relative = relative.startsWith("/") ? relative.substring(1) : relative;
+
+        Path root = Paths.get(localRoot).toAbsolutePath().normalize();
+        Path file = root.resolve(relative).normalize();
+        if (file.startsWith(root) && Files.isRegularFile(file)) {
+            return Files.readAllBytes(file);
+        }
+
+        // Originals packaged with the app, e.g. static/images/...
+        ClassPathResource resource = new ClassPathResource("static/" + relative);
+        if (!relative.contains("..") && resource.exists()) {
+            try (InputStream in = resource.getInputStream()) {
+                return in.readAllBytes();
+            }
+        }
+        throw new RuntimeException("Poster file not found: " + posterUrl);
+    }
+
+    private BufferedImage resize(BufferedImage original, int width, String format) {
+        int type = "png".equals(format) ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage current = original;
+        int targetWidth = Math.min(width, original.getWidth());
+
+        // Halve in steps first; a single bilinear pass over a large ratio drops detail
+        do {
+            int nextWidth = Math.max(targetWidth, current.getWidth() / 2);
+            int nextHeight = Math.max(1, (int) Math.round((double) current.getHeight() * nextWidth / current.getWidth()));
+            BufferedImage next = new BufferedImage(nextWidth, nextHeight, type);
+            Graphics2D g = next.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(current, 0, 0, nextWidth, nextHeight, null);
+            g.dispose();
+            current = next;
+        } while (current.getWidth() > targetWidth);
+        return current;
+    }
+
+    private Path originalPath(String hash) {
+        return Paths.get(cacheDir, "originals", hash);
+    }
+
+    private Path variantPath(String hash, int width, String format) {
+        return Paths.get(cacheDir, "variants", hash + "-" + width + "." + format);
+    }
+
+    private void writeAtomically(Path target, byte[] bytes) throws IOException {
+        Path temp = Files.createTempFile(target.getParent(), "poster", ".tmp");
+        Files.write(temp, bytes);
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static String contentType(String format) {
+        return switch (format) {
+            case "png" -> "image/png";
+            case "webp" -> "image/webp";
+            default -> "image/jpeg";
+        };
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.cinemox.service;
+
+import com.cinemox.config.MongoIndexInitializer;
+import com.cinemox.model.Review;
+import com.cinemox.model.User;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Reviews are one per user and movie: posting again edits the existing
+ * review, enforced by the unique movie_user index. Feeds are paged newest
+ * first on (createdAt, _id), so any page is one index range scan however
+ * many reviews a movie has.
+ */
+@Service
+public class ReviewService {
+
+    private static final int MAX_LIMIT = 50;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MovieRatingService movieRatingService;
+
+    @Autowired
+    private MongoIndexInitializer mongoIndexInitializer;
+
+    public record ReviewPage(List<Review> reviews, String nextCursor) {
+    }
+
+    /**
+     * Creates the user's review of the movie, or replaces its rating and
+     * comment if they already wrote one.
+     */
+    public Review upsert(Review review, User user) {
+        Query mine = new Query(Criteria.where("movieId").is(review.getMovieId()).and("userId").is(user.getId()));
+        Update update = new Update()
+                .set("userName", user.getFullName())
+                .set("rating", review.getRating())
+                .set("comment", review.getComment())
+                .set("updatedAt", LocalDateTime.now())
+                .setOnInsert("createdAt", LocalDateTime.now());
+
+        Review previous;
+        try {
+            previous = mongoTemplate.findAndModify(mine, update,
+                    FindAndModifyOptions.options().upsert(true).returnNew(false), Review.class);
+        } catch (DuplicateKeyException e) {
+            // Two first reviews raced and the other insert won; this one becomes an edit of it
+            previous = mongoTemplate.findAndModify(mine, update,
+                    FindAndModifyOptions.options().returnNew(false), Review.class);
+        }
+
+        movieRatingService.recordChange(review.getMovieId(), review.getRating(),
+                previous != null ? previous.getRating() : null);
+        return mongoTemplate.findOne(mine, Review.class);
+    }
+
+    /**
+     * Deletes the review and takes it out of the movie's aggregates. Only the
+     * call that actually removed the document adjusts the counters, so two
+     * concurrent deletes count once.
+     *
+     * @return false if the review was already gone
+     */
+    public boolean delete(String id) {
+        Review removed = mongoTemplate.findAndRemove(new Query(Criteria.where("_id").is(id)), Review.class);
+        if (removed == null) {
+            return false;
+        }
+        movieRatingService.recordChange(removed.getMovieId(), null, removed.getRating());
+        return true;
+    }
+
+    public ReviewPage page(String movieId, String cursor, int limit) {
+        int size = Math.min(Math.max(limit, 1), MAX_LIMIT);
+        Criteria criteria = Criteria.where("movieId").is(movieId);
+        if (cursor != null && !cursor.isBlank()) {
+            String[] position = decodeCursor(cursor);
+            LocalDateTime createdAt = LocalDateTime.parse(position[0]);
+            Object id = ObjectId.isValid(position[1]) ? new ObjectId(position[1]) : position[1];
+            criteria = criteria.orOperator(
+                    Criteria.where("createdAt").lt(createdAt),
+                    Criteria.where("createdAt").is(createdAt).and("_id").lt(id));
+        }
+
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "createdAt", "_id"))
+                .limit(size + 1);
+        List<Review> reviews = mongoTemplate.find(query, Review.class);
+
+        if (reviews.size() <= size) {
+            return new ReviewPage(reviews, null);
+        }
+        Review last = reviews.get(size - 1);
+        return new ReviewPage(List.copyOf(reviews.subList(0, size)), encodeCursor(last));
+    }
+
+    /**
+     * Keeps only the newest review per user and movie, from before the
+     * unique index existed, then creates the index and recounts ratings.
+     *
+     * @return number of reviews removed
+     */
+    public long removeDuplicates() {
+        Aggregation duplicates = Aggregation.newAggregation(
+                Aggregation.sort(Sort.by(Sort.Direction.DESC, "createdAt", "_id")),
+                Aggregation.group("movieId", "userId").push("_id").as("ids").count().as("count"),
+                Aggregation.match(Criteria.where("count").gt(1)));
+
+        List<Object> stale = new ArrayList<>();
+        for (Document group : mongoTemplate.aggregate(duplicates, Review.class, Document.class)) {
+            List<?> ids = group.getList("ids", Object.class);
+            stale.addAll(ids.subList(1, ids.size()));
+        }
+
+        long removed = 0;
+        if (!stale.isEmpty()) {
+            removed = mongoTemplate.remove(new Query(Criteria.where("_id").in(stale)), Review.class)
+                    .getDeletedCount();
+        }
+        mongoIndexInitializer.ensureIndexes();
+        movieRatingService.start();
+        return removed;
+    }
+
+    private String encodeCursor(Review review) {
+        String position = review.getCreatedAt() + "|" + review.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodeCursor(String cursor) {
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                    .split("\\|", 2);
+            if (position.length != 2) {
+                throw new IllegalArgumentException();
+            }
+            LocalDateTime.parse(position[0]);
+            return position;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+}
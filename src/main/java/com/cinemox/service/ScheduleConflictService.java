@@ -0,0 +1,225 @@
+package com.cinemox.service;
+
+import com.cinemox.event.ScheduleChangedEvent;
+import com.cinemox.model.Movie;
+import com.cinemox.model.Schedule;
+import com.cinemox.repository.MovieRepository;
+import com.cinemox.repository.ScheduleRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Finds schedules that would share an auditorium at the same time.
+ *
+ * Each theater keeps its upcoming schedules in a tree ordered by start time,
+ * where a schedule occupies the room from its start until the movie's
+ * duration plus a cleaning buffer has passed. A check walks back from the
+ * candidate's end only as far as the longest booking in that theater, so it
+ * costs O(log n) plus the few neighbours it actually overlaps.
+ *
+ * The index follows admin edits through ScheduleChangedEvent and is reloaded
+ * hourly to pick up edits made on other nodes.
+ */
+@Service
+public class ScheduleConflictService {
+
+    private static final Comparator<Slot> BY_START = Comparator.comparing(Slot::start)
+            .thenComparing(Slot::scheduleId);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Value("${cinemox.schedules.cleaning-buffer-minutes:15}")
+    private long cleaningBufferMinutes;
+
+    @Value("${cinemox.schedules.default-duration-minutes:120}")
+    private long defaultDurationMinutes;
+
+    private volatile Map<String, TheaterSlots> theaters = new ConcurrentHashMap<>();
+
+    public record Slot(String scheduleId, String movieTitle, String theater,
+            LocalDateTime start, LocalDateTime end) {
+    }
+
+    private static class TheaterSlots {
+        final TreeSet<Slot> slots = new TreeSet<>(BY_START);
+        final Map<String, Slot> byScheduleId = new HashMap<>();
+        long longestMinutes;
+
+        synchronized void add(Slot slot) {
+            remove(slot.scheduleId());
+            slots.add(slot);
+            byScheduleId.put(slot.scheduleId(), slot);
+            longestMinutes = Math.max(longestMinutes, Duration.between(slot.start(), slot.end()).toMinutes());
+        }
+
+        synchronized void remove(String scheduleId) {
+            Slot existing = byScheduleId.remove(scheduleId);
+            if (existing != null) {
+                slots.remove(existing);
+            }
+        }
+
+        synchronized List<Slot> overlapping(Slot candidate) {
+            List<Slot> conflicts = new ArrayList<>();
+            LocalDateTime earliest = candidate.start().minusMinutes(longestMinutes);
+            Slot probe = new Slot("", null, null, candidate.end(), candidate.end());
+            // Slots starting before the candidate ends, latest first
+            for (Slot slot : slots.headSet(probe, false).descendingSet()) {
+                if (slot.start().isBefore(earliest)) {
+                    break;
+                }
+                if (slot.end().isAfter(candidate.start()) && !slot.scheduleId().equals(candidate.scheduleId())) {
+                    conflicts.add(slot);
+                }
+            }
+            return conflicts;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelay = 3600000, initialDelay = 3600000)
+    public void reload() {
+        Query upcoming = new Query(Criteria.where("active").is(true)
+                .and("showDate").gte(LocalDate.now().minusDays(1)));
+        List<Schedule> schedules = mongoTemplate.find(upcoming, Schedule.class);
+        Map<String, Movie> movies = moviesFor(schedules);
+
+        Map<String, TheaterSlots> rebuilt = new ConcurrentHashMap<>();
+        for (Schedule schedule : schedules) {
+            Slot slot = slotFor(schedule, movies.get(schedule.getMovieId()));
+            if (slot != null) {
+                rebuilt.computeIfAbsent(slot.theater(), t -> new TheaterSlots()).add(slot);
+            }
+        }
+        theaters = rebuilt;
+    }
+
+    @EventListener
+    public void onScheduleChanged(ScheduleChangedEvent event) {
+        if (event.scheduleId() == null) {
+            reload();
+            return;
+        }
+        theaters.values().forEach(slots -> slots.remove(event.scheduleId()));
+        scheduleRepository.findById(event.scheduleId())
+                .filter(Schedule::isActive)
+                .ifPresent(schedule -> {
+                    Slot slot = slotFor(schedule, movieRepository.findById(schedule.getMovieId()).orElse(null));
+                    if (slot != null) {
+                        theaters.computeIfAbsent(slot.theater(), t -> new TheaterSlots()).add(slot);
+                    }
+                });
+    }
+
+    /**
+     * Schedules already in the candidate's theater that overlap it.
+     */
+    public List<Slot> findConflicts(Schedule candidate, Movie movie) {
+        Slot slot = slotFor(candidate, movie);
+        if (slot == null) {
+            return List.of();
+        }
+        TheaterSlots slots = theaters.get(slot.theater());
+        return slots != null ? slots.overlapping(slot) : List.of();
+    }
+
+    /**
+     * Checks a whole program at once, e.g. a week being imported: each entry is
+     * compared with the stored schedules and with the entries before it.
+     *
+     * @return conflicts per entry index; entries without conflicts are left out
+     */
+    public Map<Integer, List<Slot>> validateBatch(List<Schedule> candidates) {
+        return validateBatch(candidates, Set.of());
+    }
+
+    /**
+     * Same as {@link #validateBatch(List)}, ignoring stored schedules that the
+     * batch is about to replace.
+     */
+    public Map<Integer, List<Slot>> validateBatch(List<Schedule> candidates, Set<String> replacing) {
+        Map<String, Movie> movies = moviesFor(candidates);
+        Map<String, TheaterSlots> batch = new HashMap<>();
+        Map<Integer, List<Slot>> report = new HashMap<>();
+
+        for (int i = 0; i < candidates.size(); i++) {
+            Schedule candidate = candidates.get(i);
+            Slot slot = slotFor(candidate, movies.get(candidate.getMovieId()));
+            if (slot == null) {
+                continue;
+            }
+            if (slot.scheduleId().isEmpty()) {
+                // Unsaved entries need a distinct id to be told apart within the batch
+                slot = new Slot("#" + i, slot.movieTitle(), slot.theater(), slot.start(), slot.end());
+            }
+
+            List<Slot> conflicts = new ArrayList<>();
+            TheaterSlots stored = theaters.get(slot.theater());
+            if (stored != null) {
+                stored.overlapping(slot).stream()
+                        .filter(conflict -> !replacing.contains(conflict.scheduleId()))
+                        .forEach(conflicts::add);
+            }
+            TheaterSlots earlier = batch.computeIfAbsent(slot.theater(), t -> new TheaterSlots());
+            conflicts.addAll(earlier.overlapping(slot));
+            earlier.add(slot);
+
+            if (!conflicts.isEmpty()) {
+                report.put(i, conflicts);
+            }
+        }
+        return report;
+    }
+
+    private Slot slotFor(Schedule schedule, Movie movie) {
+        if (schedule.getTheater() == null || schedule.getShowDate() == null || schedule.getShowTime() == null) {
+            return null;
+        }
+        long minutes = movie != null && movie.getDuration() != null ? movie.getDuration() : defaultDurationMinutes;
+        LocalDateTime start = schedule.getShowDate().atTime(schedule.getShowTime());
+        return new Slot(
+                schedule.getId() != null ? schedule.getId() : "",
+                movie != null ? movie.getTitle() : schedule.getMovieTitle(),
+                schedule.getTheater(),
+                start,
+                start.plusMinutes(minutes + cleaningBufferMinutes));
+    }
+
+    private Map<String, Movie> moviesFor(List<Schedule> schedules) {
+        Map<String, Movie> movies = new HashMap<>();
+        movieRepository.findAllById(schedules.stream()
+                        .map(Schedule::getMovieId)
+                        .filter(Objects::nonNull)
+                        .distinct()
+                        .toList())
+                .forEach(movie -> movies.put(movie.getId(), movie));
+        return movies;
+    }
+}
@@ -0,0 +1,180 @@
+package com.cinemox.service;
+
+import com.cinemox.model.Movie;
+import com.cinemox.model.Schedule;
+import com.cinemox.repository.MovieRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Backfills schedule fields that older documents may lack or have let drift:
+ * a missing movieTitle, a null bookedSeats list and an availableSeats that no
+ * longer matches the booked seats. Schedule GETs only fill these in for the
+ * response; this job writes them back in batches.
+ *
+ * availableSeats is only rewritten if it still holds the value that was read,
+ * so a seat claim landing mid-batch is never overwritten.
+ */
+@Service
+public class ScheduleRepairService {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
+    @Value("${cinemox.schedules.repair.batch-size:500}")
+    private int batchSize;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong scanned = new AtomicLong();
+    private final AtomicLong repaired = new AtomicLong();
+    private volatile long total;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String lastError;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void repairOnStartup() {
+        start();
+    }
+
+    @Scheduled(cron = "${cinemox.schedules.repair.cron:0 30 3 * * *}")
+    public void repairNightly() {
+        start();
+    }
+
+    /**
+     * Starts a repair run in the background unless one is already running.
+     *
+     * @return false if a run was already in progress
+     */
+    public boolean start() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        scanned.set(0);
+        repaired.set(0);
+        total = mongoTemplate.count(new Query(), Schedule.class);
+        startedAt = LocalDateTime.now();
+        finishedAt = null;
+        lastError = null;
+
+        Thread.ofVirtual().name("schedule-repair").start(() -> {
+            try {
+                repairAll();
+            } catch (Exception e) {
+                lastError = e.getMessage();
+                System.err.println("Schedule repair failed: " + e.getMessage());
+            } finally {
+                finishedAt = LocalDateTime.now();
+                running.set(false);
+            }
+        });
+        return true;
+    }
+
+    public Map<String, Object> progress() {
+        Map<String, Object> progress = new LinkedHashMap<>();
+        progress.put("running", running.get());
+        progress.put("total", total);
+        progress.put("scanned", scanned.get());
+        progress.put("repaired", repaired.get());
+        progress.put("startedAt", startedAt);
+        progress.put("finishedAt", finishedAt);
+        progress.put("lastError", lastError);
+        return progress;
+    }
+
+    private void repairAll() {
+        String lastId = null;
+        while (true) {
+            Query page = new Query().with(Sort.by(Sort.Direction.ASC, "_id")).limit(batchSize);
+            if (lastId != null) {
+                page.addCriteria(Criteria.where("_id").gt(lastId));
+            }
+            List<Schedule> batch = mongoTemplate.find(page, Schedule.class);
+            if (batch.isEmpty()) {
+                return;
+            }
+            repairBatch(batch);
+            scanned.addAndGet(batch.size());
+            lastId = batch.get(batch.size() - 1).getId();
+        }
+    }
+
+    private void repairBatch(List<Schedule> batch) {
+        // One lookup for every movie title the batch is missing
+        Set<String> movieIds = batch.stream()
+                .filter(schedule -> schedule.getMovieTitle() == null || schedule.getMovieTitle().isBlank())
+                .map(Schedule::getMovieId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<String, String> titles = new HashMap<>();
+        for (Movie movie : movieRepository.findAllById(movieIds)) {
+            titles.put(movie.getId(), movie.getTitle());
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Schedule.class);
+        int updates = 0;
+        for (Schedule schedule : batch) {
+            Criteria match = Criteria.where("_id").is(schedule.getId());
+            Update update = new Update();
+
+            if (schedule.getBookedSeats() == null) {
+                match = match.and("bookedSeats").is(null);
+                update.set("bookedSeats", new ArrayList<>());
+                schedule.setBookedSeats(new ArrayList<>());
+            }
+
+            if ((schedule.getMovieTitle() == null || schedule.getMovieTitle().isBlank())
+                    && titles.containsKey(schedule.getMovieId())) {
+                update.set("movieTitle", titles.get(schedule.getMovieId()));
+            }
+
+            if (schedule.getTotalSeats() != null) {
+                int bookedCount = seatInventoryService.bookedSeatCount(schedule);
+                int available = Math.max(0, schedule.getTotalSeats() - bookedCount);
+                if (schedule.getAvailableSeats() == null || schedule.getAvailableSeats() != available) {
+                    match = match.and("availableSeats").is(schedule.getAvailableSeats());
+                    update.set("availableSeats", available);
+                }
+            }
+
+            if (!update.getUpdateObject().isEmpty()) {
+                bulk.updateOne(new Query(match), update);
+                updates++;
+            }
+        }
+
+        if (updates > 0) {
+            repaired.addAndGet(bulk.execute().getModifiedCount());
+        }
+    }
+}
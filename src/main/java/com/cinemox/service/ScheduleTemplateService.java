@@ -0,0 +1,273 @@
+package com.cinemox.service;
+
+import com.cinemox.event.ScheduleChangedEvent;
+import com.cinemox.model.Movie;
+import com.cinemox.model.Schedule;
+import com.cinemox.model.ScheduleTemplate;
+import com.cinemox.repository.MovieRepository;
+import com.cinemox.repository.ScheduleRepository;
+import com.cinemox.repository.ScheduleTemplateRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Recurring programming: a template (movie, theater, show times, date range,
+ * weekdays) expands into its schedules server-side, which are written with a
+ * single insertMany. Editing a template regenerates its upcoming schedules;
+ * cancelling it deactivates them. Upcoming schedules that already have
+ * bookings or holds are never replaced or dropped by an edit, including ones
+ * that got their first booking while the edit was running.
+ *
+ * The whole series is checked for theater overlaps before anything is
+ * written, and one ScheduleChangedEvent is published per change rather than
+ * one per schedule.
+ */
+@Service
+public class ScheduleTemplateService {
+
+    @Autowired
+    private ScheduleTemplateRepository scheduleTemplateRepository;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
+    @Autowired
+    private TheaterLayoutService theaterLayoutService;
+
+    @Autowired
+    private ScheduleConflictService scheduleConflictService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${cinemox.schedules.templates.max-schedules:5000}")
+    private int maxSchedules;
+
+    /**
+     * Outcome of saving a template. When conflicts is not empty and the save
+     * was not forced, nothing was written.
+     */
+    public record SeriesResult(ScheduleTemplate template, int created, int replaced, int kept,
+            Map<String, List<ScheduleConflictService.Slot>> conflicts) {
+    }
+
+    public List<ScheduleTemplate> findAll() {
+        return scheduleTemplateRepository.findAll();
+    }
+
+    public SeriesResult create(ScheduleTemplate template, boolean force) {
+        Movie movie = validate(template);
+        LocalDate from = later(template.getStartDate(), LocalDate.now());
+        List<Schedule> schedules = expand(template, movie, from, Set.of());
+
+        Map<String, List<ScheduleConflictService.Slot>> conflicts = conflicts(schedules, Set.of());
+        if (!conflicts.isEmpty() && !force) {
+            return new SeriesResult(template, 0, 0, 0, conflicts);
+        }
+
+        template.setId(null);
+        template.setCreatedAt(LocalDateTime.now());
+        template.setUpdatedAt(LocalDateTime.now());
+        ScheduleTemplate saved = scheduleTemplateRepository.save(template);
+        insert(saved, schedules);
+        eventPublisher.publishEvent(new ScheduleChangedEvent(null, null));
+        return new SeriesResult(saved, schedules.size(), 0, 0, conflicts);
+    }
+
+    public SeriesResult update(String id, ScheduleTemplate template, boolean force) {
+        ScheduleTemplate existing = scheduleTemplateRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Schedule template not found"));
+        if (!existing.isActive()) {
+            throw new RuntimeException("Schedule template has been cancelled");
+        }
+        Movie movie = validate(template);
+
+        // Past shows stay as they were; upcoming ones with bookings are kept too
+        LocalDate today = LocalDate.now();
+        List<Schedule> upcoming = scheduleRepository.findByTemplateIdAndShowDateGreaterThanEqual(id, today);
+        List<Schedule> kept = new ArrayList<>();
+        List<String> replaced = new ArrayList<>();
+        for (Schedule schedule : upcoming) {
+            if (seatInventoryService.bookedSeatCount(schedule) > 0) {
+                kept.add(schedule);
+            } else {
+                replaced.add(schedule.getId());
+            }
+        }
+        Set<String> keptSlots = kept.stream()
+                .map(schedule -> slotKey(schedule.getShowDate(), schedule.getShowTime()))
+                .collect(Collectors.toSet());
+
+        List<Schedule> schedules = expand(template, movie, later(template.getStartDate(), today), keptSlots);
+        Map<String, List<ScheduleConflictService.Slot>> conflicts = conflicts(schedules, Set.copyOf(replaced));
+        if (!conflicts.isEmpty() && !force) {
+            return new SeriesResult(template, 0, 0, kept.size(), conflicts);
+        }
+
+        template.setId(id);
+        template.setCreatedAt(existing.getCreatedAt());
+        template.setUpdatedAt(LocalDateTime.now());
+        ScheduleTemplate saved = scheduleTemplateRepository.save(template);
+
+        int removed = 0;
+        if (!replaced.isEmpty()) {
+            // Delete only schedules that are still empty; a booking or hold placed since the read keeps its show
+            mongoTemplate.remove(new Query(Criteria.where("_id").in(replaced)
+                    .and("bookedSeats.0").exists(false)
+                    .and("heldSeats.0").exists(false)
+                    .andOperator(Criteria.expr(ComparisonOperators.valueOf("availableSeats").equalTo("totalSeats")))),
+                    Schedule.class);
+            List<Schedule> raced = mongoTemplate.find(new Query(Criteria.where("_id").in(replaced)), Schedule.class);
+            removed = replaced.size() - raced.size();
+            if (!raced.isEmpty()) {
+                kept.addAll(raced);
+                Set<String> racedSlots = raced.stream()
+                        .map(schedule -> slotKey(schedule.getShowDate(), schedule.getShowTime()))
+                        .collect(Collectors.toSet());
+                schedules.removeIf(schedule -> racedSlots.contains(slotKey(schedule.getShowDate(), schedule.getShowTime())));
+            }
+        }
+        insert(saved, schedules);
+        eventPublisher.publishEvent(new ScheduleChangedEvent(null, null));
+        return new SeriesResult(saved, schedules.size(), removed, kept.size(), conflicts);
+    }
+
+    /**
+     * Stops the series: the template is deactivated along with every upcoming
+     * schedule it generated. Bookings are left untouched.
+     *
+     * @return number of schedules deactivated
+     */
+    public long cancel(String id) {
+        ScheduleTemplate template = scheduleTemplateRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Schedule template not found"));
+        template.setActive(false);
+        template.setUpdatedAt(LocalDateTime.now());
+        scheduleTemplateRepository.save(template);
+
+        long deactivated = mongoTemplate.updateMulti(
+                new Query(Criteria.where("templateId").is(id)
+                        .and("showDate").gte(LocalDate.now())
+                        .and("active").is(true)),
+                Update.update("active", false),
+                Schedule.class).getModifiedCount();
+        eventPublisher.publishEvent(new ScheduleChangedEvent(null, null));
+        return deactivated;
+    }
+
+    private Movie validate(ScheduleTemplate template) {
+        if (template.getMovieId() == null) {
+            throw new RuntimeException("Movie is required");
+        }
+        if (template.getTheater() == null || template.getTheater().isBlank()) {
+            throw new RuntimeException("Theater is required");
+        }
+        if (template.getShowTimes() == null || template.getShowTimes().isEmpty()) {
+            throw new RuntimeException("At least one show time is required");
+        }
+        if (template.getStartDate() == null || template.getEndDate() == null) {
+            throw new RuntimeException("Start and end date are required");
+        }
+        if (template.getEndDate().isBefore(template.getStartDate())) {
+            throw new RuntimeException("End date must not be before start date");
+        }
+        if (template.getWeekdays() == null) {
+            template.setWeekdays(new ArrayList<>());
+        }
+        if (template.getTotalSeats() == null) {
+            template.setTotalSeats(50);
+        }
+
+        Movie movie = movieRepository.findById(template.getMovieId())
+                .orElseThrow(() -> new RuntimeException("Movie not found"));
+        template.setMovieTitle(movie.getTitle());
+        template.setActive(true);
+        return movie;
+    }
+
+    private List<Schedule> expand(ScheduleTemplate template, Movie movie, LocalDate from, Set<String> skip) {
+        List<LocalTime> times = template.getShowTimes().stream().distinct().sorted().toList();
+        List<Schedule> schedules = new ArrayList<>();
+
+        for (LocalDate date = from; !date.isAfter(template.getEndDate()); date = date.plusDays(1)) {
+            if (!template.getWeekdays().isEmpty() && !template.getWeekdays().contains(date.getDayOfWeek())) {
+                continue;
+            }
+            for (LocalTime time : times) {
+                if (skip.contains(slotKey(date, time))) {
+                    continue;
+                }
+                if (schedules.size() >= maxSchedules) {
+                    throw new RuntimeException("A template can generate at most " + maxSchedules + " schedules");
+                }
+
+                Schedule schedule = new Schedule();
+                schedule.setMovieId(movie.getId());
+                schedule.setMovieTitle(movie.getTitle());
+                schedule.setTheater(template.getTheater());
+                schedule.setShowDate(date);
+                schedule.setShowTime(time);
+                schedule.setPrice(template.getPrice());
+                schedule.setTotalSeats(template.getTotalSeats());
+                theaterLayoutService.applyLayout(schedule);
+                schedule.setAvailableSeats(schedule.getTotalSeats());
+                seatInventoryService.initialize(schedule);
+                schedules.add(schedule);
+            }
+        }
+        return schedules;
+    }
+
+    private Map<String, List<ScheduleConflictService.Slot>> conflicts(List<Schedule> schedules, Set<String> replacing) {
+        Map<String, List<ScheduleConflictService.Slot>> conflicts = new LinkedHashMap<>();
+        scheduleConflictService.validateBatch(schedules, replacing).entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> {
+                    Schedule schedule = schedules.get(entry.getKey());
+                    conflicts.put(slotKey(schedule.getShowDate(), schedule.getShowTime()), entry.getValue());
+                });
+        return conflicts;
+    }
+
+    private void insert(ScheduleTemplate template, List<Schedule> schedules) {
+        if (schedules.isEmpty()) {
+            return;
+        }
+        schedules.forEach(schedule -> schedule.setTemplateId(template.getId()));
+        scheduleRepository.insert(schedules);
+    }
+
+    private static LocalDate later(LocalDate a, LocalDate b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static String slotKey(LocalDate date, LocalTime time) {
+        return date + " " + time;
+    }
+}
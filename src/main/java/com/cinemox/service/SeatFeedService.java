@@ -0,0 +1,196 @@
+package com.cinemox.service;
+
+import com.cinemox.event.SeatInventoryChangedEvent;
+import com.cinemox.model.Schedule;
+import com.cinemox.repository.ScheduleRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes seat changes to booking pages over server-sent events.
+ *
+ * A subscriber gets one snapshot of the schedule's seats and then only
+ * deltas (claimed, held, confirmed, released). Deltas are seat-set changes,
+ * so applying one that the snapshot already reflects is harmless; clients
+ * derive availability as totalSeats minus booked seats. Changes are collected per
+ * schedule and flushed every few hundred milliseconds as one event, which is
+ * serialized once and written to every watcher. Writes run on virtual
+ * threads, one task per schedule flush, so no thread is parked per
+ * connection and a slow client on one show does not delay the others.
+ *
+ * Only changes made on this node are seen; watchers of a show should be
+ * routed to the node that sells it, or resubscribe to get a fresh snapshot.
+ */
+@Service
+public class SeatFeedService {
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${cinemox.seat-feed.timeout-ms:1800000}")
+    private long timeoutMillis;
+
+    private final Map<String, Feed> feeds = new ConcurrentHashMap<>();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    private static class Feed {
+        final List<SseEmitter> watchers = new CopyOnWriteArrayList<>();
+        final Queue<Map<String, Object>> pending = new ConcurrentLinkedQueue<>();
+        final AtomicLong sequence = new AtomicLong();
+        final AtomicBoolean sending = new AtomicBoolean();
+    }
+
+    @PreDestroy
+    public void stop() {
+        senders.shutdownNow();
+    }
+
+    public SseEmitter subscribe(String scheduleId) {
+        if (!scheduleRepository.existsById(scheduleId)) {
+            throw new RuntimeException("Schedule not found");
+        }
+
+        // Register before reading the snapshot so no change after the read is missed
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Feed feed = feeds.compute(scheduleId, (id, existing) -> {
+            Feed current = existing != null ? existing : new Feed();
+            current.watchers.add(emitter);
+            return current;
+        });
+        emitter.onCompletion(() -> feed.watchers.remove(emitter));
+        emitter.onTimeout(() -> feed.watchers.remove(emitter));
+        emitter.onError(e -> feed.watchers.remove(emitter));
+
+        Schedule schedule = scheduleRepository.findById(scheduleId)
+                .orElseThrow(() -> new RuntimeException("Schedule not found"));
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("scheduleId", scheduleId);
+        snapshot.put("totalSeats", schedule.getTotalSeats());
+        snapshot.put("bookedSeats", seatInventoryService.bookedSeatLabels(schedule));
+        snapshot.put("heldSeats", schedule.getHeldSeats());
+        try {
+            emitter.send(SseEmitter.event()
+                    .id(String.valueOf(feed.sequence.get()))
+                    .name("snapshot")
+                    .data(serialize(snapshot), MediaType.APPLICATION_JSON));
+        } catch (IOException e) {
+            feed.watchers.remove(emitter);
+            emitter.completeWithError(e);
+        }
+        return emitter;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        feeds.forEach((scheduleId, feed) -> stats.put(scheduleId, Map.of(
+                "watchers", feed.watchers.size(),
+                "sequence", feed.sequence.get())));
+        return stats;
+    }
+
+    @EventListener
+    public void onSeatInventoryChanged(SeatInventoryChangedEvent event) {
+        Feed feed = feeds.get(event.scheduleId());
+        if (feed == null || feed.watchers.isEmpty()) {
+            return;
+        }
+        Map<String, Object> delta = new LinkedHashMap<>();
+        delta.put("change", event.change());
+        delta.put("seats", event.seats());
+        feed.pending.add(delta);
+    }
+
+    @Scheduled(fixedDelayString = "${cinemox.seat-feed.flush-interval-ms:250}")
+    public void flush() {
+        feeds.forEach((scheduleId, feed) -> {
+            if (feed.pending.isEmpty() || !feed.sending.compareAndSet(false, true)) {
+                return;
+            }
+            List<Map<String, Object>> changes = new ArrayList<>();
+            for (Map<String, Object> delta; (delta = feed.pending.poll()) != null; ) {
+                changes.add(delta);
+            }
+
+            Map<String, Object> payload = new LinkedHashMap<>();
+            payload.put("scheduleId", scheduleId);
+            payload.put("changes", changes);
+            String id = String.valueOf(feed.sequence.incrementAndGet());
+            String json = serialize(payload);
+
+            senders.execute(() -> {
+                try {
+                    broadcast(feed, id, json);
+                } finally {
+                    feed.sending.set(false);
+                }
+            });
+        });
+    }
+
+    @Scheduled(fixedDelay = 15000)
+    public void heartbeat() {
+        feeds.forEach((scheduleId, feed) -> senders.execute(() -> {
+            for (SseEmitter emitter : feed.watchers) {
+                try {
+                    emitter.send(SseEmitter.event().comment("ping"));
+                } catch (Exception e) {
+                    feed.watchers.remove(emitter);
+                }
+            }
+        }));
+        for (String scheduleId : feeds.keySet()) {
+            feeds.computeIfPresent(scheduleId, (id, feed) ->
+                    feed.watchers.isEmpty() && feed.pending.isEmpty() ? null : feed);
+        }
+    }
+
+    private void broadcast(Feed feed, String id, String json) {
+        for (SseEmitter emitter : feed.watchers) {
+            try {
+                // Event builders are single use; the serialized JSON is shared
+                emitter.send(SseEmitter.event()
+                        .id(id)
+                        .name("seats")
+                        .data(json, MediaType.APPLICATION_JSON));
+            } catch (Exception e) {
+                feed.watchers.remove(emitter);
+            }
+        }
+    }
+
+    private String serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize seat update", e);
+        }
+    }
+}
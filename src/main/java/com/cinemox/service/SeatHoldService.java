@@ -0,0 +1,243 @@
+package com.cinemox.service;
+
+import com.cinemox.dto.ApiResponse;
+import com.cinemox.dto.SeatHoldRequest;
+import com.cinemox.model.Booking;
+import com.cinemox.model.Schedule;
+import com.cinemox.model.SeatHold;
+import com.cinemox.repository.ScheduleRepository;
+import com.cinemox.repository.SeatHoldRepository;
+import com.cinemox.util.HashedTimingWheel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Time-limited seat holds for customers on the checkout page. A hold claims
+ * its seats immediately, so they disappear from availability, and gives them
+ * back when it is released or lapses.
+ *
+ * Every status change is a conditional update on the hold document, so an
+ * expiry racing a confirm (or another node) can only ever have one winner.
+ * Deadlines are tracked in a hashed timing wheel; a slower sweep picks up
+ * holds created on other nodes or before a restart.
+ */
+@Service
+public class SeatHoldService {
+
+    public static final String STATUS_ACTIVE = "ACTIVE";
+    public static final String STATUS_RELEASED = "RELEASED";
+    public static final String STATUS_EXPIRED = "EXPIRED";
+    public static final String STATUS_CONVERTED = "CONVERTED";
+
+    @Autowired
+    private SeatHoldRepository seatHoldRepository;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${cinemox.holds.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    @Value("${cinemox.holds.max-lifetime-seconds:1800}")
+    private long maxLifetimeSeconds;
+
+    private final HashedTimingWheel<String> expiryWheel =
+            new HashedTimingWheel<>(100, 1024, System.currentTimeMillis());
+
+    public ApiResponse hold(String userEmail, SeatHoldRequest request) {
+        Schedule schedule = scheduleRepository.findById(request.getScheduleId())
+                .orElseThrow(() -> new RuntimeException("Schedule not found"));
+
+        List<String> seats = request.getSeats();
+        if (seats.stream().distinct().count() != seats.size()) {
+            return new ApiResponse(false, "Duplicate seats in request", null);
+        }
+
+        if (!seatInventoryService.holdSeats(schedule, seats)) {
+            return bookingService.seatConflictResponse(schedule.getId(), seats);
+        }
+
+        SeatHold hold = new SeatHold();
+        hold.setScheduleId(schedule.getId());
+        hold.setUserEmail(userEmail);
+        hold.setSeats(seats);
+        hold.setStatus(STATUS_ACTIVE);
+        hold.setExpiresAt(LocalDateTime.now().plusSeconds(ttlSeconds));
+
+        try {
+            hold = seatHoldRepository.save(hold);
+        } catch (RuntimeException e) {
+            seatInventoryService.releaseHeldSeats(schedule, seats);
+            throw e;
+        }
+
+        expiryWheel.schedule(hold.getId(), toMillis(hold.getExpiresAt()));
+        return new ApiResponse(true, "Seats held successfully", hold);
+    }
+
+    public ApiResponse extend(String userEmail, String holdId) {
+        SeatHold hold = findOwnedHold(userEmail, holdId);
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plusSeconds(ttlSeconds);
+        LocalDateTime limit = hold.getCreatedAt().plusSeconds(maxLifetimeSeconds);
+        if (expiresAt.isAfter(limit)) {
+            expiresAt = limit;
+        }
+
+        SeatHold extended = mongoTemplate.findAndModify(
+                activeHold(holdId).addCriteria(Criteria.where("expiresAt").gt(now)),
+                new Update().set("expiresAt", expiresAt),
+                FindAndModifyOptions.options().returnNew(true),
+                SeatHold.class);
+
+        if (extended == null) {
+            return new ApiResponse(false, "Hold is no longer active", null);
+        }
+
+        expiryWheel.schedule(extended.getId(), toMillis(extended.getExpiresAt()));
+        return new ApiResponse(true, "Hold extended successfully", extended);
+    }
+
+    public ApiResponse release(String userEmail, String holdId) {
+        findOwnedHold(userEmail, holdId);
+
+        SeatHold released = transition(activeHold(holdId), STATUS_RELEASED);
+        if (released == null) {
+            return new ApiResponse(false, "Hold is no longer active", null);
+        }
+
+        expiryWheel.cancel(holdId);
+        giveBackSeats(released);
+        return new ApiResponse(true, "Hold released successfully", null);
+    }
+
+    public ApiResponse confirm(String userEmail, String holdId, Double totalPrice) {
+        findOwnedHold(userEmail, holdId);
+
+        SeatHold converted = transition(
+                activeHold(holdId).addCriteria(Criteria.where("expiresAt").gt(LocalDateTime.now())),
+                STATUS_CONVERTED);
+        if (converted == null) {
+            return new ApiResponse(false, "Hold is no longer active", null);
+        }
+        expiryWheel.cancel(holdId);
+
+        ApiResponse response;
+        try {
+            response = bookingService.createBookingFromHold(
+                    userEmail, converted.getScheduleId(), converted.getSeats(), totalPrice);
+        } catch (RuntimeException e) {
+            // No booking was written; hand the seats back to the hold so they are confirmed on retry or expire with it
+            reactivate(converted);
+            throw e;
+        }
+
+        if (response.getData() instanceof Booking booking) {
+            mongoTemplate.updateFirst(
+                    new Query(Criteria.where("_id").is(holdId)),
+                    new Update().set("bookingId", booking.getId()),
+                    SeatHold.class);
+        }
+        return response;
+    }
+
+    @Scheduled(fixedDelay = 200)
+    public void expireDueHolds() {
+        for (String holdId : expiryWheel.advance(System.currentTimeMillis())) {
+            expire(holdId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cinemox.holds.sweep-interval-ms:60000}")
+    public void sweepLapsedHolds() {
+        for (SeatHold hold : seatHoldRepository.findByStatusAndExpiresAtBefore(STATUS_ACTIVE, LocalDateTime.now())) {
+            expire(hold.getId());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadActiveHolds() {
+        for (SeatHold hold : seatHoldRepository.findByStatus(STATUS_ACTIVE)) {
+            expiryWheel.schedule(hold.getId(), toMillis(hold.getExpiresAt()));
+        }
+    }
+
+    private void expire(String holdId) {
+        try {
+            SeatHold expired = transition(
+                    activeHold(holdId).addCriteria(Criteria.where("expiresAt").lte(LocalDateTime.now())),
+                    STATUS_EXPIRED);
+
+            if (expired != null) {
+                giveBackSeats(expired);
+                return;
+            }
+
+            // Extended elsewhere in the meantime; track the new deadline
+            seatHoldRepository.findById(holdId)
+                    .filter(hold -> STATUS_ACTIVE.equals(hold.getStatus()))
+                    .ifPresent(hold -> expiryWheel.schedule(hold.getId(), toMillis(hold.getExpiresAt())));
+        } catch (Exception e) {
+            System.err.println("Failed to expire seat hold " + holdId + ": " + e.getMessage());
+        }
+    }
+
+    private void reactivate(SeatHold hold) {
+        SeatHold active = transition(
+                new Query(Criteria.where("_id").is(hold.getId()).and("status").is(STATUS_CONVERTED)),
+                STATUS_ACTIVE);
+        if (active != null) {
+            expiryWheel.schedule(active.getId(), toMillis(active.getExpiresAt()));
+        }
+    }
+
+    private void giveBackSeats(SeatHold hold) {
+        scheduleRepository.findById(hold.getScheduleId())
+                .ifPresent(schedule -> seatInventoryService.releaseHeldSeats(schedule, hold.getSeats()));
+    }
+
+    private SeatHold findOwnedHold(String userEmail, String holdId) {
+        SeatHold hold = seatHoldRepository.findById(holdId)
+                .orElseThrow(() -> new RuntimeException("Hold not found"));
+        if (!hold.getUserEmail().equals(userEmail)) {
+            throw new RuntimeException("Hold not found");
+        }
+        return hold;
+    }
+
+    private Query activeHold(String holdId) {
+        return new Query(Criteria.where("_id").is(holdId).and("status").is(STATUS_ACTIVE));
+    }
+
+    private SeatHold transition(Query query, String status) {
+        return mongoTemplate.findAndModify(query, new Update().set("status", status),
+                FindAndModifyOptions.options().returnNew(true), SeatHold.class);
+    }
+
+    private long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,269 @@
+package com.cinemox.service;
+
+import com.cinemox.event.SeatInventoryChangedEvent;
+import com.cinemox.model.Schedule;
+import com.cinemox.util.SeatBitmap;
+import com.mongodb.client.result.UpdateResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Claims and releases seats on a schedule with single conditional updates, so
+ * two buyers racing for the same seat cannot both win, even across app nodes.
+ *
+ * Schedules either keep booked seats as a list of labels (LIST) or as packed
+ * 64-bit words indexed by seat position (BITSET). Callers always deal in seat
+ * labels; the bitmap is only decoded at the API edge.
+ */
+@Service
+public class SeatInventoryService {
+
+    public static final String STORAGE_LIST = "LIST";
+    public static final String STORAGE_BITSET = "BITSET";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private TheaterLayoutService theaterLayoutService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${cinemox.seats.storage:LIST}")
+    private String defaultStorage;
+
+    /**
+     * Prepares seat storage on a schedule that is about to be inserted.
+     */
+    public void initialize(Schedule schedule) {
+        if (schedule.getSeatStorage() == null) {
+            schedule.setSeatStorage(defaultStorage.toUpperCase());
+        }
+        if (schedule.getSeatsPerRow() == null) {
+            schedule.setSeatsPerRow(10);
+        }
+        if (schedule.getBookedSeats() == null) {
+            schedule.setBookedSeats(new ArrayList<>());
+        }
+        if (isBitset(schedule) && schedule.getSeatBitmap() == null) {
+            schedule.setSeatBitmap(SeatBitmap.emptyWords(theaterLayoutService.indexCapacity(schedule)));
+        }
+    }
+
+    /**
+     * Saves an admin edit without rewriting the seats. The given fields are
+     * $set, a change in totalSeats moves availableSeats by the same amount
+     * and grows a BITSET bitmap with $push of empty words. The write only
+     * matches while totalSeats and the bitmap length are what the caller read,
+     * and a shrink only while enough seats are unsold, so seats claimed since
+     * the read are kept.
+     *
+     * @return the schedule as written
+     */
+    public Schedule updateDetails(Schedule existing, String theater, Integer totalSeats, Update update) {
+        int previousTotal = existing.getTotalSeats() != null ? existing.getTotalSeats() : 50;
+        int newTotal = totalSeats != null ? totalSeats : previousTotal;
+        int delta = newTotal - previousTotal;
+
+        Criteria criteria = Criteria.where("_id").is(existing.getId()).and("totalSeats").is(existing.getTotalSeats());
+        update.set("totalSeats", newTotal);
+        if (delta != 0) {
+            update.inc("availableSeats", delta);
+        }
+        if (delta < 0) {
+            criteria = criteria.and("availableSeats").gte(-delta);
+        }
+
+        if (isBitset(existing)) {
+            Schedule resized = new Schedule();
+            resized.setTheater(theater);
+            resized.setTotalSeats(newTotal);
+            resized.setSeatsPerRow(existing.getSeatsPerRow());
+            List<Long> words = existing.getSeatBitmap();
+            int missing = SeatBitmap.wordCount(theaterLayoutService.indexCapacity(resized))
+                    - (words != null ? words.size() : 0);
+            if (missing > 0) {
+                criteria = words != null
+                        ? criteria.and("seatBitmap").size(words.size())
+                        : criteria.and("seatBitmap").exists(false);
+                update.push("seatBitmap").each(SeatBitmap.emptyWords(missing * SeatBitmap.WORD_BITS).toArray());
+            }
+        }
+
+        Schedule updated = mongoTemplate.findAndModify(new Query(criteria), update,
+                FindAndModifyOptions.options().returnNew(true), Schedule.class);
+        if (updated == null) {
+            throw new RuntimeException("Schedule changed meanwhile or has too few unsold seats to remove, please reload");
+        }
+        return updated;
+    }
+
+    public boolean isBitset(Schedule schedule) {
+        return STORAGE_BITSET.equals(schedule.getSeatStorage());
+    }
+
+    public List<String> bookedSeatLabels(Schedule schedule) {
+        if (isBitset(schedule)) {
+            return SeatBitmap.decode(schedule.getSeatBitmap(), schedule.getSeatsPerRow());
+        }
+        return schedule.getBookedSeats() != null ? schedule.getBookedSeats() : List.of();
+    }
+
+    public int bookedSeatCount(Schedule schedule) {
+        if (isBitset(schedule)) {
+            return SeatBitmap.countSet(schedule.getSeatBitmap());
+        }
+        return schedule.getBookedSeats() != null ? schedule.getBookedSeats().size() : 0;
+    }
+
+    /**
+     * Atomically marks the given seats as booked. The update only matches when
+     * none of the seats is already booked and enough seats are left, so it
+     * either claims all of them or none.
+     *
+     * @return true if this call won the seats
+     */
+    public boolean claimSeats(Schedule schedule, List<String> seats) {
+        return claim(schedule, seats, false);
+    }
+
+    /**
+     * Claims seats like {@link #claimSeats} and also lists them in heldSeats,
+     * so the UI can tell seats that are mid-checkout from sold ones.
+     */
+    public boolean holdSeats(Schedule schedule, List<String> seats) {
+        return claim(schedule, seats, true);
+    }
+
+    /**
+     * Gives previously claimed seats back, e.g. when the booking insert that
+     * followed a successful claim failed.
+     */
+    public void releaseSeats(Schedule schedule, List<String> seats) {
+        release(schedule, seats, false);
+    }
+
+    /**
+     * Gives held seats back when their hold is released or lapses.
+     */
+    public void releaseHeldSeats(Schedule schedule, List<String> seats) {
+        release(schedule, seats, true);
+    }
+
+    /**
+     * Turns held seats into sold seats; they stay claimed and only leave heldSeats.
+     */
+    public void confirmHeldSeats(Schedule schedule, List<String> seats) {
+        Query query = new Query(Criteria.where("_id").is(schedule.getId()));
+        Update update = new Update().pullAll("heldSeats", seats.toArray());
+        if (mongoTemplate.updateFirst(query, update, Schedule.class).getModifiedCount() == 1) {
+            eventPublisher.publishEvent(new SeatInventoryChangedEvent(schedule.getId(),
+                    SeatInventoryChangedEvent.CONFIRMED, List.copyOf(seats), 0));
+        }
+    }
+
+    private boolean claim(Schedule schedule, List<String> seats, boolean hold) {
+        // BITSET seats are checked against the layout while building masks
+        if (!isBitset(schedule) && theaterLayoutService.hasStoredLayout(schedule)) {
+            for (String seat : seats) {
+                if (!theaterLayoutService.isValidSeat(schedule, seat)) {
+                    throw new RuntimeException("Seat " + seat + " does not exist");
+                }
+            }
+        }
+
+        Query query;
+        Update update = new Update().inc("availableSeats", -seats.size());
+
+        if (isBitset(schedule)) {
+            Criteria criteria = Criteria.where("_id").is(schedule.getId());
+            for (Map.Entry<Integer, Long> mask : masks(schedule, seats).entrySet()) {
+                String word = "seatBitmap." + mask.getKey();
+                criteria = criteria.and(word).bits().allClear(bitPositions(mask.getValue()));
+                update.bitwise(word).or(mask.getValue());
+            }
+            query = new Query(criteria.and("availableSeats").gte(seats.size()));
+        } else {
+            query = new Query(Criteria.where("_id").is(schedule.getId())
+                    .and("bookedSeats").nin(seats)
+                    .and("availableSeats").gte(seats.size()));
+            update.push("bookedSeats").each(seats.toArray());
+        }
+        if (hold) {
+            update.addToSet("heldSeats").each(seats.toArray());
+        }
+
+        UpdateResult result = mongoTemplate.updateFirst(query, update, Schedule.class);
+        if (result.getModifiedCount() != 1) {
+            return false;
+        }
+        eventPublisher.publishEvent(new SeatInventoryChangedEvent(schedule.getId(),
+                hold ? SeatInventoryChangedEvent.HELD : SeatInventoryChangedEvent.CLAIMED,
+                List.copyOf(seats), -seats.size()));
+        return true;
+    }
+
+    private void release(Schedule schedule, List<String> seats, boolean held) {
+        Query query;
+        Update update = new Update().inc("availableSeats", seats.size());
+
+        if (isBitset(schedule)) {
+            Criteria criteria = Criteria.where("_id").is(schedule.getId());
+            for (Map.Entry<Integer, Long> mask : masks(schedule, seats).entrySet()) {
+                String word = "seatBitmap." + mask.getKey();
+                criteria = criteria.and(word).bits().allSet(bitPositions(mask.getValue()));
+                update.bitwise(word).and(~mask.getValue());
+            }
+            query = new Query(criteria);
+        } else {
+            query = new Query(Criteria.where("_id").is(schedule.getId())
+                    .and("bookedSeats").all(seats));
+            update.pullAll("bookedSeats", seats.toArray());
+        }
+        if (held) {
+            update.pullAll("heldSeats", seats.toArray());
+        }
+
+        if (mongoTemplate.updateFirst(query, update, Schedule.class).getModifiedCount() == 1) {
+            eventPublisher.publishEvent(new SeatInventoryChangedEvent(schedule.getId(),
+                    SeatInventoryChangedEvent.RELEASED, List.copyOf(seats), seats.size()));
+        }
+    }
+
+    private Map<Integer, Long> masks(Schedule schedule, List<String> seats) {
+        List<Integer> indexes = new ArrayList<>();
+        for (String seat : seats) {
+            if (!theaterLayoutService.isValidSeat(schedule, seat)) {
+                throw new RuntimeException("Seat " + seat + " does not exist");
+            }
+            int index = SeatBitmap.seatIndex(seat, schedule.getSeatsPerRow());
+            if (schedule.getSeatBitmap() == null
+                    || index >= SeatBitmap.WORD_BITS * schedule.getSeatBitmap().size()) {
+                throw new RuntimeException("Seat " + seat + " does not exist");
+            }
+            indexes.add(index);
+        }
+        return SeatBitmap.masks(indexes);
+    }
+
+    // $bitsAllClear/$bitsAllSet take an int mask at most, so words are matched by bit position
+    private static List<Integer> bitPositions(long mask) {
+        return IntStream.range(0, SeatBitmap.WORD_BITS)
+                .filter(bit -> ((mask >>> bit) & 1L) != 0)
+                .boxed()
+                .toList();
+    }
+}
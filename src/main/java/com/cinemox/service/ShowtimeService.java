@@ -0,0 +1,181 @@
+package com.cinemox.service;
+
+import com.cinemox.event.MovieChangedEvent;
+import com.cinemox.event.ScheduleChangedEvent;
+import com.cinemox.event.SeatInventoryChangedEvent;
+import com.cinemox.model.Movie;
+import com.cinemox.model.Schedule;
+import com.cinemox.repository.MovieRepository;
+import com.cinemox.repository.ScheduleRepository;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Showtimes for a day grouped under their movies, as the landing pages need
+ * them. Each day is built once and kept in memory; seat claims and releases
+ * adjust the cached availability in place, and schedule edits rebuild only
+ * the day they touch.
+ *
+ * Events are local to a node, so a day is also rebuilt once it is older than
+ * cinemox.showtimes.max-age-seconds to pick up bookings made on other nodes.
+ */
+@Service
+public class ShowtimeService {
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
+    @Value("${cinemox.showtimes.max-age-seconds:60}")
+    private long maxAgeSeconds;
+
+    private final Map<LocalDate, DayShowtimes> days = new ConcurrentHashMap<>();
+    private final Map<String, LocalDate> scheduleDays = new ConcurrentHashMap<>();
+
+    private record DayShowtimes(List<MovieShowtimes> movies, Map<String, Showtime> bySchedule,
+            long builtAtMillis) {
+    }
+
+    public record MovieShowtimes(String movieId, String title, String posterUrl, String genre,
+            Integer duration, String rating, List<Showtime> showtimes) {
+    }
+
+    @Getter
+    public static class Showtime {
+        private final String scheduleId;
+        private final LocalTime showTime;
+        private final String theater;
+        private final Double price;
+        private final Integer totalSeats;
+        private final AtomicInteger availableSeats;
+
+        Showtime(Schedule schedule, int availableSeats) {
+            this.scheduleId = schedule.getId();
+            this.showTime = schedule.getShowTime();
+            this.theater = schedule.getTheater();
+            this.price = schedule.getPrice();
+            this.totalSeats = schedule.getTotalSeats();
+            this.availableSeats = new AtomicInteger(availableSeats);
+        }
+    }
+
+    public List<MovieShowtimes> showtimesOn(LocalDate date) {
+        DayShowtimes day = days.get(date);
+        if (day == null || !isFresh(day)) {
+            day = build(date, day);
+        }
+        return day.movies();
+    }
+
+    @EventListener
+    public void onSeatInventoryChanged(SeatInventoryChangedEvent event) {
+        LocalDate date = scheduleDays.get(event.scheduleId());
+        DayShowtimes day = date != null ? days.get(date) : null;
+        Showtime showtime = day != null ? day.bySchedule().get(event.scheduleId()) : null;
+        if (showtime != null) {
+            showtime.availableSeats.updateAndGet(available -> Math.max(0, available + event.availableDelta()));
+        }
+    }
+
+    @EventListener
+    public void onScheduleChanged(ScheduleChangedEvent event) {
+        if (event.showDate() == null) {
+            evictAll();
+        } else {
+            DayShowtimes day = days.get(event.showDate());
+            if (day != null) {
+                build(event.showDate(), day);
+            }
+        }
+    }
+
+    @EventListener
+    public void onMovieChanged(MovieChangedEvent event) {
+        // A title or poster may appear on any day
+        evictAll();
+    }
+
+    public void evictAll() {
+        days.clear();
+        scheduleDays.clear();
+    }
+
+    @Scheduled(fixedDelay = 3600000)
+    public void evictPastDays() {
+        LocalDate today = LocalDate.now();
+        days.keySet().removeIf(date -> date.isBefore(today));
+        scheduleDays.values().removeIf(date -> date.isBefore(today));
+    }
+
+    private boolean isFresh(DayShowtimes day) {
+        return System.currentTimeMillis() - day.builtAtMillis() <= maxAgeSeconds * 1000;
+    }
+
+    /**
+     * Rebuilds the day unless another thread already replaced the copy the
+     * caller found stale while it waited for the lock; that newer copy was
+     * built after the caller looked, so it is returned as is.
+     */
+    private synchronized DayShowtimes build(LocalDate date, DayShowtimes seen) {
+        DayShowtimes current = days.get(date);
+        if (current != null && current != seen && isFresh(current)) {
+            return current;
+        }
+
+        List<Schedule> schedules = scheduleRepository.findByShowDateAndActiveTrue(date);
+
+        Map<String, Movie> movies = new HashMap<>();
+        movieRepository.findAllById(schedules.stream().map(Schedule::getMovieId).distinct().toList())
+                .forEach(movie -> movies.put(movie.getId(), movie));
+
+        Map<String, List<Showtime>> byMovie = new LinkedHashMap<>();
+        Map<String, Showtime> bySchedule = new HashMap<>();
+        schedules.stream()
+                .sorted(Comparator.comparing(Schedule::getShowTime,
+                        Comparator.nullsLast(Comparator.naturalOrder())))
+                .forEach(schedule -> {
+                    int total = schedule.getTotalSeats() != null ? schedule.getTotalSeats() : 0;
+                    Showtime showtime = new Showtime(schedule,
+                            Math.max(0, total - seatInventoryService.bookedSeatCount(schedule)));
+                    byMovie.computeIfAbsent(schedule.getMovieId(), id -> new ArrayList<>()).add(showtime);
+                    bySchedule.put(schedule.getId(), showtime);
+                });
+
+        List<MovieShowtimes> result = new ArrayList<>();
+        byMovie.forEach((movieId, showtimes) -> {
+            Movie movie = movies.get(movieId);
+            if (movie == null) {
+                return;
+            }
+            result.add(new MovieShowtimes(movie.getId(), movie.getTitle(), movie.getPosterUrl(),
+                    movie.getGenre(), movie.getDuration(), movie.getRating(), List.copyOf(showtimes)));
+        });
+        result.sort(Comparator.comparing(MovieShowtimes::title,
+                Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER)));
+
+        DayShowtimes day = new DayShowtimes(List.copyOf(result), bySchedule, System.currentTimeMillis());
+        days.put(date, day);
+        bySchedule.keySet().forEach(scheduleId -> scheduleDays.put(scheduleId, date));
+        return day;
+    }
+}
@@ -0,0 +1,277 @@
+package com.cinemox.service;
+
+import com.cinemox.model.Schedule;
+import com.cinemox.model.TheaterLayout;
+import com.cinemox.repository.TheaterLayoutRepository;
+import com.cinemox.util.SeatBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Theater seat maps and seat suggestions.
+ *
+ * A schedule uses the stored layout whose name matches its theater, or a
+ * plain grid of seatsPerRow seats when there is none. Searches build one
+ * 64-bit occupancy word per row, so finding every free block of N adjacent
+ * seats in a row is a handful of shifts and ANDs.
+ */
+@Service
+public class TheaterLayoutService {
+
+    /** Seats behind the middle of the room are preferred. */
+    private static final double IDEAL_ROW_FRACTION = 0.6;
+
+    @Autowired
+    private TheaterLayoutRepository theaterLayoutRepository;
+
+    private final Map<String, Optional<TheaterLayout>> layoutCache = new ConcurrentHashMap<>();
+
+    public List<TheaterLayout> findAll() {
+        return theaterLayoutRepository.findAll();
+    }
+
+    public TheaterLayout save(TheaterLayout layout) {
+        if (layout.getName() == null || layout.getName().isBlank()) {
+            throw new RuntimeException("Layout name is required");
+        }
+        if (layout.getRows() == null || layout.getRows().isEmpty()) {
+            throw new RuntimeException("Layout needs at least one row");
+        }
+        for (TheaterLayout.Row row : layout.getRows()) {
+            if (row.getLabel() == null || !row.getLabel().matches("[A-Za-z]+")) {
+                throw new RuntimeException("Row labels must be letters");
+            }
+            if (row.getSeats() == null || row.getSeats() < 1 || row.getSeats() > SeatBitmap.WORD_BITS) {
+                throw new RuntimeException("Row " + row.getLabel() + " must have 1 to 64 seats");
+            }
+            row.setLabel(row.getLabel().toUpperCase());
+            if (row.getAisleAfter() == null) {
+                row.setAisleAfter(new ArrayList<>());
+            }
+        }
+
+        theaterLayoutRepository.findByName(layout.getName()).ifPresent(existing -> {
+            if (!existing.getId().equals(layout.getId())) {
+                layout.setId(existing.getId());
+            }
+        });
+        layout.setUpdatedAt(LocalDateTime.now());
+        TheaterLayout saved = theaterLayoutRepository.save(layout);
+        layoutCache.remove(saved.getName());
+        return saved;
+    }
+
+    public void delete(String id) {
+        theaterLayoutRepository.findById(id).ifPresent(layout -> {
+            theaterLayoutRepository.deleteById(id);
+            layoutCache.remove(layout.getName());
+        });
+    }
+
+    public TheaterLayout layoutFor(Schedule schedule) {
+        return storedLayout(schedule).orElseGet(() -> gridLayout(schedule));
+    }
+
+    public boolean hasStoredLayout(Schedule schedule) {
+        return storedLayout(schedule).isPresent();
+    }
+
+    /**
+     * Copies seat totals from the theater's layout onto a new schedule.
+     */
+    public void applyLayout(Schedule schedule) {
+        storedLayout(schedule).ifPresent(layout -> {
+            schedule.setTotalSeats(layout.getRows().stream().mapToInt(TheaterLayout.Row::getSeats).sum());
+            schedule.setSeatsPerRow(layout.getRows().stream().mapToInt(TheaterLayout.Row::getSeats).max().orElse(10));
+        });
+    }
+
+    /**
+     * Number of bit positions a BITSET schedule needs for its layout.
+     */
+    public int indexCapacity(Schedule schedule) {
+        int capacity = 0;
+        for (TheaterLayout.Row row : layoutFor(schedule).getRows()) {
+            capacity = Math.max(capacity,
+                    SeatBitmap.seatIndex(row.getLabel() + row.getSeats(), schedule.getSeatsPerRow()) + 1);
+        }
+        return capacity;
+    }
+
+    public boolean isValidSeat(Schedule schedule, String label) {
+        SeatRef ref = parse(label);
+        if (ref == null) {
+            return false;
+        }
+        for (TheaterLayout.Row row : layoutFor(schedule).getRows()) {
+            if (row.getLabel().equals(ref.row())) {
+                return ref.number() >= 1 && ref.number() <= row.getSeats();
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Best block of {@code count} adjacent free seats: central, slightly
+     * towards the back. Returns an empty list if there is none.
+     */
+    public List<String> bestAvailable(Schedule schedule, Collection<String> bookedSeats, int count, String seatClass) {
+        TheaterLayout layout = layoutFor(schedule);
+        double idealRow = (layout.getRows().size() - 1) * IDEAL_ROW_FRACTION;
+        return search(layout, bookedSeats, count, seatClass, (rowIndex, row, start) -> {
+            double rowCenter = (row.getSeats() - 1) / 2.0;
+            double blockCenter = start + (count - 1) / 2.0;
+            return Math.abs(rowIndex - idealRow) / layout.getRows().size()
+                    + Math.abs(blockCenter - rowCenter) / row.getSeats();
+        });
+    }
+
+    /**
+     * Free block of {@code count} adjacent seats closest to the seats the
+     * customer asked for, used to suggest an alternative after a conflict.
+     */
+    public List<String> nearestAvailable(Schedule schedule, Collection<String> bookedSeats, List<String> wanted) {
+        TheaterLayout layout = layoutFor(schedule);
+        Map<String, Integer> rowIndexes = new HashMap<>();
+        for (int i = 0; i < layout.getRows().size(); i++) {
+            rowIndexes.put(layout.getRows().get(i).getLabel(), i);
+        }
+
+        double targetRow = 0;
+        double targetSeat = 0;
+        int known = 0;
+        for (String label : wanted) {
+            SeatRef ref = parse(label);
+            if (ref != null && rowIndexes.containsKey(ref.row())) {
+                targetRow += rowIndexes.get(ref.row());
+                targetSeat += ref.number() - 1;
+                known++;
+            }
+        }
+        if (known == 0) {
+            return bestAvailable(schedule, bookedSeats, wanted.size(), null);
+        }
+
+        double row = targetRow / known;
+        double seat = targetSeat / known;
+        int count = wanted.size();
+        return search(layout, bookedSeats, count, null, (rowIndex, r, start) ->
+                Math.abs(rowIndex - row) + 0.5 * Math.abs(start + (count - 1) / 2.0 - seat));
+    }
+
+    private interface BlockScore {
+        double score(int rowIndex, TheaterLayout.Row row, int start);
+    }
+
+    private List<String> search(TheaterLayout layout, Collection<String> bookedSeats, int count,
+            String seatClass, BlockScore scorer) {
+        List<String> best = new ArrayList<>();
+        if (count < 1 || count > SeatBitmap.WORD_BITS) {
+            return best;
+        }
+
+        Map<String, Long> occupied = new HashMap<>();
+        for (String label : bookedSeats) {
+            SeatRef ref = parse(label);
+            if (ref != null && ref.number() >= 1 && ref.number() <= SeatBitmap.WORD_BITS) {
+                occupied.merge(ref.row(), 1L << (ref.number() - 1), (a, b) -> a | b);
+            }
+        }
+
+        double bestScore = Double.MAX_VALUE;
+        for (int rowIndex = 0; rowIndex < layout.getRows().size(); rowIndex++) {
+            TheaterLayout.Row row = layout.getRows().get(rowIndex);
+            if (seatClass != null && !seatClass.equalsIgnoreCase(row.getSeatClass())) {
+                continue;
+            }
+
+            int width = row.getSeats();
+            if (count > width) {
+                continue;
+            }
+            long rowMask = width == SeatBitmap.WORD_BITS ? -1L : (1L << width) - 1;
+            long free = ~occupied.getOrDefault(row.getLabel(), 0L) & rowMask;
+
+            // Bit j set: seat j+1 and seat j+2 sit next to each other
+            long adjacent = rowMask >>> 1;
+            for (Integer aisle : row.getAisleAfter()) {
+                if (aisle != null && aisle >= 1 && aisle <= width) {
+                    adjacent &= ~(1L << (aisle - 1));
+                }
+            }
+
+            // Bit s set: seats s+1 .. s+count are free and adjacent
+            long starts = free;
+            for (int k = 1; k < count; k++) {
+                starts &= (free >>> k) & (adjacent >>> (k - 1));
+            }
+
+            while (starts != 0) {
+                int start = Long.numberOfTrailingZeros(starts);
+                starts &= starts - 1;
+                double score = scorer.score(rowIndex, row, start);
+                if (score < bestScore) {
+                    bestScore = score;
+                    best = new ArrayList<>();
+                    for (int k = 0; k < count; k++) {
+                        best.add(row.getLabel() + (start + k + 1));
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    private Optional<TheaterLayout> storedLayout(Schedule schedule) {
+        if (schedule.getTheater() == null) {
+            return Optional.empty();
+        }
+        return layoutCache.computeIfAbsent(schedule.getTheater(), theaterLayoutRepository::findByName);
+    }
+
+    private TheaterLayout gridLayout(Schedule schedule) {
+        int totalSeats = schedule.getTotalSeats() != null ? schedule.getTotalSeats() : 50;
+        int perRow = schedule.getSeatsPerRow() != null ? schedule.getSeatsPerRow() : 10;
+
+        TheaterLayout layout = new TheaterLayout();
+        layout.setName(schedule.getTheater());
+        for (int index = 0; index < totalSeats; index += perRow) {
+            TheaterLayout.Row row = new TheaterLayout.Row();
+            row.setLabel(SeatBitmap.seatLabel(index, perRow).replaceAll("[0-9]", ""));
+            row.setSeats(Math.min(perRow, totalSeats - index));
+            layout.getRows().add(row);
+        }
+        return layout;
+    }
+
+    private record SeatRef(String row, int number) {
+    }
+
+    private SeatRef parse(String label) {
+        if (label == null) {
+            return null;
+        }
+        String upper = label.trim().toUpperCase();
+        int split = 0;
+        while (split < upper.length() && Character.isLetter(upper.charAt(split))) {
+            split++;
+        }
+        if (split == 0 || split == upper.length()) {
+            return null;
+        }
+        try {
+            return new SeatRef(upper.substring(0, split), Integer.parseInt(upper.substring(split)));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.cinemox.service;
+
+import com.cinemox.model.Booking;
+import com.cinemox.repository.BookingRepository;
+import com.cinemox.security.TicketSigner;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Renders ticket QR codes on demand. Bookings only store their booking code;
+ * the PNG is produced the first time it is asked for and kept in a bounded
+ * LRU cache, so repeat views never touch MongoDB or ZXing.
+ */
+@Service
+public class TicketService {
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private BarcodeService barcodeService;
+
+    @Autowired
+    private TicketSigner ticketSigner;
+
+    @Value("${cinemox.tickets.qr-cache-size:2000}")
+    private int qrCacheSize;
+
+    private Map<String, RenderedTicket> qrCache;
+
+    public record RenderedTicket(byte[] png, String etag, String userEmail) {
+    }
+
+    @PostConstruct
+    public void init() {
+        qrCache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, RenderedTicket> eldest) {
+                return size() > qrCacheSize;
+            }
+        });
+    }
+
+    /**
+     * The QR carries a signed ticket token so gates can verify it offline.
+     */
+    public String payload(Booking booking) {
+        return ticketSigner.sign(booking);
+    }
+
+    public TicketSigner.VerifiedTicket verify(String token) {
+        return ticketSigner.verify(token);
+    }
+
+    public RenderedTicket renderQr(String bookingCode) {
+        RenderedTicket cached = qrCache.get(bookingCode);
+        if (cached != null) {
+            return cached;
+        }
+        Booking booking = bookingRepository.findByBookingCode(bookingCode)
+                .orElseThrow(() -> new RuntimeException("Booking not found"));
+        return renderQr(booking);
+    }
+
+    public RenderedTicket renderQr(Booking booking) {
+        RenderedTicket cached = qrCache.get(booking.getBookingCode());
+        if (cached != null) {
+            return cached;
+        }
+        // Rendering happens outside the cache lock; a duplicate render just overwrites the same bytes
+        byte[] png = barcodeService.generateQrPng(payload(booking));
+        RenderedTicket rendered = new RenderedTicket(png, "\"" + sha256(png) + "\"", booking.getUserEmail());
+        qrCache.put(booking.getBookingCode(), rendered);
+        return rendered;
+    }
+
+    private String sha256(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data)).substring(0, 32);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
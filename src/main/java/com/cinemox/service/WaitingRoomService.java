@@ -0,0 +1,384 @@
+package com.cinemox.service;
+
+import com.cinemox.model.UsedAdmission;
+import com.cinemox.repository.ScheduleRepository;
+import com.cinemox.repository.UsedAdmissionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Virtual waiting room in front of the booking path for flash sales.
+ *
+ * Signed-in users join a per-schedule queue and get an opaque ticket, one
+ * per user and room. A token bucket per schedule admits queued tickets in
+ * order at a configurable rate; an admitted ticket receives a short-lived
+ * signed admission token, bound to the user, that POST /api/bookings and
+ * /api/holds require while the room is enabled. The token is used up by the
+ * first successful booking or hold. Rates can be overridden per schedule or
+ * per movie.
+ *
+ * Tokens are checked by their signature alone and used tokens are recorded
+ * in MongoDB, so a booking or hold may land on any node. The queue itself
+ * (join, status and the event stream) is kept in memory, so those calls for
+ * a show must be routed to the same node.
+ *
+ * Admitted tickets are dropped once their token is used or has expired, so
+ * a room only holds the users still waiting or about to book.
+ */
+@Service
+public class WaitingRoomService {
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @Autowired
+    private UsedAdmissionRepository usedAdmissionRepository;
+
+    @Value("${cinemox.waiting-room.enabled:false}")
+    private boolean enabled;
+
+    @Value("${cinemox.waiting-room.rate-per-second:20}")
+    private double defaultRate;
+
+    @Value("${cinemox.waiting-room.burst:40}")
+    private double defaultBurst;
+
+    @Value("${cinemox.waiting-room.token-ttl-seconds:600}")
+    private long tokenTtlSeconds;
+
+    @Value("${cinemox.waiting-room.secret:${jwt.secret}}")
+    private String secret;
+
+    private final Map<String, Room> rooms = new ConcurrentHashMap<>();
+    private final Map<String, double[]> scheduleRates = new ConcurrentHashMap<>();
+    private final Map<String, double[]> movieRates = new ConcurrentHashMap<>();
+
+    private static class Position {
+        final long number;
+        final String userEmail;
+        volatile long admittedAtMillis; // stamped by the first sweep after admission; fixes the token expiry
+
+        Position(long number, String userEmail) {
+            this.number = number;
+            this.userEmail = userEmail;
+        }
+    }
+
+    private static class Room {
+        final String scheduleId;
+        final String movieId;
+        final AtomicLong issued = new AtomicLong();
+        final Map<String, Position> positions = new ConcurrentHashMap<>();
+        final Map<String, String> ticketsByUser = new ConcurrentHashMap<>();
+        final Map<String, SseEmitter> emitters = new ConcurrentHashMap<>();
+        volatile long admittedUpTo;
+        double tokens;
+        long lastRefillNanos = System.nanoTime();
+        volatile long lastActivityMillis = System.currentTimeMillis();
+
+        Room(String scheduleId, String movieId) {
+            this.scheduleId = scheduleId;
+            this.movieId = movieId;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues the user for the show. Joining again while still queued or
+     * admitted returns the same ticket rather than a new place in line.
+     */
+    public Map<String, Object> join(String scheduleId, String userEmail) {
+        Room room = room(scheduleId);
+        // A ticket whose token was used up on another node gives way to a new place in line
+        String current = room.ticketsByUser.get(userEmail);
+        if (current != null && usedAdmissionRepository.existsById(usedId(scheduleId, current))) {
+            room.positions.remove(current);
+            room.ticketsByUser.remove(userEmail, current);
+        }
+        String ticket = room.ticketsByUser.compute(userEmail, (user, existing) -> {
+            if (existing != null && room.positions.containsKey(existing)) {
+                return existing;
+            }
+            String issued = UUID.randomUUID().toString();
+            room.positions.put(issued, new Position(room.issued.incrementAndGet(), user));
+            return issued;
+        });
+        room.lastActivityMillis = System.currentTimeMillis();
+        return status(scheduleId, ticket);
+    }
+
+    public Map<String, Object> status(String scheduleId, String ticket) {
+        Room room = rooms.get(scheduleId);
+        Position position = room != null ? room.positions.get(ticket) : null;
+        if (position == null) {
+            throw new RuntimeException("Waiting room ticket not found");
+        }
+        room.lastActivityMillis = System.currentTimeMillis();
+
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("scheduleId", scheduleId);
+        status.put("ticket", ticket);
+        if (position.number <= room.admittedUpTo) {
+            if (position.admittedAtMillis == 0) {
+                position.admittedAtMillis = System.currentTimeMillis();
+            }
+            status.put("admitted", true);
+            status.put("position", 0);
+            status.put("admissionToken", issueToken(scheduleId, ticket, position));
+        } else {
+            status.put("admitted", false);
+            status.put("position", position.number - room.admittedUpTo);
+        }
+        return status;
+    }
+
+    public SseEmitter subscribe(String scheduleId, String ticket) {
+        Map<String, Object> current = status(scheduleId, ticket);
+        SseEmitter emitter = new SseEmitter(tokenTtlSeconds * 1000);
+        try {
+            emitter.send(SseEmitter.event().name("position").data(current));
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+            return emitter;
+        }
+        if (Boolean.TRUE.equals(current.get("admitted"))) {
+            emitter.complete();
+            return emitter;
+        }
+
+        Room room = rooms.get(scheduleId);
+        room.emitters.put(ticket, emitter);
+        emitter.onCompletion(() -> room.emitters.remove(ticket, emitter));
+        emitter.onTimeout(() -> room.emitters.remove(ticket, emitter));
+        return emitter;
+    }
+
+    /**
+     * Checks the admission token sent with a booking or hold request and uses
+     * it up, so it admits one request by the user it was issued to. Only the
+     * first insert of the used-token record wins, on whichever node.
+     *
+     * @return false if the token is invalid, expired, someone else's or used
+     */
+    public boolean consumeAdmission(String scheduleId, String admissionToken, String userEmail) {
+        String[] fields = verify(scheduleId, admissionToken, userEmail);
+        if (fields == null) {
+            return false;
+        }
+        UsedAdmission used = new UsedAdmission();
+        used.setId(usedId(scheduleId, fields[1]));
+        used.setUserEmail(userEmail);
+        used.setExpiresAt(LocalDateTime.ofInstant(Instant.ofEpochSecond(Long.parseLong(fields[3])),
+                ZoneId.systemDefault()));
+        try {
+            usedAdmissionRepository.insert(used);
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+
+        // The node holding the queue drops the ticket now; others leave it to expire
+        Room room = rooms.get(scheduleId);
+        if (room != null) {
+            room.positions.remove(fields[1]);
+            room.ticketsByUser.remove(userEmail, fields[1]);
+        }
+        return true;
+    }
+
+    /**
+     * Gives back a token taken by consumeAdmission when the request it
+     * admitted failed, e.g. because the seats were gone, so the user can try
+     * other seats without queueing again.
+     */
+    public void restoreAdmission(String scheduleId, String admissionToken, String userEmail) {
+        String[] fields = verify(scheduleId, admissionToken, userEmail);
+        if (fields == null) {
+            return;
+        }
+        usedAdmissionRepository.deleteById(usedId(scheduleId, fields[1]));
+
+        Room room = rooms.get(scheduleId);
+        if (room == null) {
+            return;
+        }
+        Position position = new Position(Long.parseLong(fields[2]), userEmail);
+        position.admittedAtMillis = (Long.parseLong(fields[3]) - tokenTtlSeconds) * 1000;
+        if (room.positions.putIfAbsent(fields[1], position) == null) {
+            room.ticketsByUser.putIfAbsent(userEmail, fields[1]);
+        }
+    }
+
+    public void setRate(String scope, String id, double ratePerSecond, double burst) {
+        double[] rate = {ratePerSecond, burst};
+        switch (scope) {
+            case "schedule" -> scheduleRates.put(id, rate);
+            case "movie" -> movieRates.put(id, rate);
+            default -> throw new RuntimeException("Scope must be schedule or movie");
+        }
+    }
+
+    public Map<String, Object> roomStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        rooms.forEach((scheduleId, room) -> stats.put(scheduleId, Map.of(
+                "issued", room.issued.get(),
+                "admitted", room.admittedUpTo,
+                "waiting", room.issued.get() - room.admittedUpTo,
+                "subscribers", room.emitters.size())));
+        return stats;
+    }
+
+    @Scheduled(fixedDelay = 100)
+    public void admit() {
+        long nowNanos = System.nanoTime();
+        for (Room room : rooms.values()) {
+            long admittedBefore = room.admittedUpTo;
+            synchronized (room) {
+                double[] rate = rateFor(room);
+                double elapsed = (nowNanos - room.lastRefillNanos) / 1_000_000_000.0;
+                room.tokens = Math.min(rate[1], room.tokens + elapsed * rate[0]);
+                room.lastRefillNanos = nowNanos;
+
+                long waiting = room.issued.get() - room.admittedUpTo;
+                long admitted = Math.min((long) room.tokens, waiting);
+                if (admitted > 0) {
+                    room.admittedUpTo += admitted;
+                    room.tokens -= admitted;
+                }
+            }
+            if (room.admittedUpTo != admittedBefore) {
+                notifySubscribers(room);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void closeIdleRooms() {
+        long now = System.currentTimeMillis();
+        long cutoff = now - tokenTtlSeconds * 1000;
+        for (Room room : rooms.values()) {
+            // Admitted tickets get one token lifetime, counted from when they were first seen admitted
+            room.positions.entrySet().removeIf(entry -> {
+                Position position = entry.getValue();
+                if (position.number > room.admittedUpTo) {
+                    return false;
+                }
+                if (position.admittedAtMillis == 0) {
+                    position.admittedAtMillis = now;
+                    return false;
+                }
+                if (position.admittedAtMillis < cutoff) {
+                    room.ticketsByUser.remove(position.userEmail, entry.getKey());
+                    return true;
+                }
+                return false;
+            });
+        }
+        rooms.entrySet().removeIf(entry -> entry.getValue().lastActivityMillis < cutoff
+                && entry.getValue().emitters.isEmpty()
+                && entry.getValue().positions.isEmpty());
+    }
+
+    private Room room(String scheduleId) {
+        return rooms.computeIfAbsent(scheduleId, id -> {
+            String movieId = scheduleRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Schedule not found"))
+                    .getMovieId();
+            return new Room(id, movieId);
+        });
+    }
+
+    private double[] rateFor(Room room) {
+        double[] rate = scheduleRates.get(room.scheduleId);
+        if (rate == null && room.movieId != null) {
+            rate = movieRates.get(room.movieId);
+        }
+        return rate != null ? rate : new double[]{defaultRate, defaultBurst};
+    }
+
+    private void notifySubscribers(Room room) {
+        room.emitters.forEach((ticket, emitter) -> {
+            try {
+                Map<String, Object> status = status(room.scheduleId, ticket);
+                emitter.send(SseEmitter.event().name("position").data(status));
+                if (Boolean.TRUE.equals(status.get("admitted"))) {
+                    emitter.complete();
+                }
+            } catch (Exception e) {
+                room.emitters.remove(ticket, emitter);
+            }
+        });
+    }
+
+    private String usedId(String scheduleId, String ticket) {
+        return scheduleId + "|" + ticket;
+    }
+
+    private String issueToken(String scheduleId, String ticket, Position position) {
+        long expiresAt = position.admittedAtMillis / 1000 + tokenTtlSeconds;
+        String payload = scheduleId + "|" + ticket + "|" + position.number + "|" + expiresAt + "|" + position.userEmail;
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString(payload.getBytes(StandardCharsets.UTF_8)) + "." +
+                encoder.encodeToString(hmac(payload));
+    }
+
+    /**
+     * @return the token's fields (schedule, ticket, number, expiry, user) if it
+     *         is genuine, unexpired and issued to this user for this show
+     */
+    private String[] verify(String scheduleId, String admissionToken, String userEmail) {
+        if (admissionToken == null) {
+            return null;
+        }
+        String[] parts = admissionToken.split("\\.");
+        if (parts.length != 2) {
+            return null;
+        }
+        try {
+            String payload = new String(Base64.getUrlDecoder().decode(parts[0]), StandardCharsets.UTF_8);
+            byte[] signature = Base64.getUrlDecoder().decode(parts[1]);
+            if (!MessageDigest.isEqual(hmac(payload), signature)) {
+                return null;
+            }
+            String[] fields = payload.split("\\|", 5);
+            boolean valid = fields.length == 5
+                    && fields[0].equals(scheduleId)
+                    && fields[4].equals(userEmail)
+                    && Instant.now().getEpochSecond() <= Long.parseLong(fields[3]);
+            return valid ? fields : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private byte[] hmac(String payload) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to sign admission token", e);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.cinemox.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hashed timing wheel for many short-lived deadlines. Scheduling and
+ * cancelling are O(1); advancing only visits the buckets for the ticks that
+ * passed instead of scanning every pending key.
+ */
+public class HashedTimingWheel<K> {
+
+    private final long tickMillis;
+    private final List<Map<K, Long>> buckets;
+    private final Map<K, Integer> bucketOfKey = new HashMap<>();
+    private long currentTick;
+
+    public HashedTimingWheel(long tickMillis, int wheelSize, long nowMillis) {
+        this.tickMillis = tickMillis;
+        this.buckets = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            buckets.add(new LinkedHashMap<>());
+        }
+        this.currentTick = nowMillis / tickMillis;
+    }
+
+    /**
+     * Schedules (or reschedules) a key to expire at the given time.
+     */
+    public synchronized void schedule(K key, long deadlineMillis) {
+        cancel(key);
+        long deadlineTick = Math.max(deadlineMillis / tickMillis, currentTick);
+        int bucket = (int) (deadlineTick % buckets.size());
+        buckets.get(bucket).put(key, deadlineTick);
+        bucketOfKey.put(key, bucket);
+    }
+
+    public synchronized boolean cancel(K key) {
+        Integer bucket = bucketOfKey.remove(key);
+        if (bucket == null) {
+            return false;
+        }
+        buckets.get(bucket).remove(key);
+        return true;
+    }
+
+    public synchronized int size() {
+        return bucketOfKey.size();
+    }
+
+    /**
+     * Moves the wheel up to the given time and returns every key whose deadline
+     * has passed. If more than a full revolution elapsed, each bucket is
+     * visited once.
+     */
+    public synchronized List<K> advance(long nowMillis) {
+        List<K> expired = new ArrayList<>();
+        long nowTick = nowMillis / tickMillis;
+        if (nowTick < currentTick) {
+            return expired;
+        }
+
+        long ticks = Math.min(nowTick - currentTick + 1, buckets.size());
+        for (long tick = nowTick - ticks + 1; tick <= nowTick; tick++) {
+            Iterator<Map.Entry<K, Long>> it = buckets.get((int) (tick % buckets.size())).entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<K, Long> entry = it.next();
+                if (entry.getValue() <= nowTick) {
+                    expired.add(entry.getKey());
+                    bucketOfKey.remove(entry.getKey());
+                    it.remove();
+                }
+            }
+        }
+        currentTick = nowTick + 1;
+        return expired;
+    }
+}
@@ -0,0 +1,116 @@
+package com.cinemox.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Helpers for schedules that store seat occupancy as packed 64-bit words.
+ * Seat "A1" is index 0, "A2" index 1, ..., "B1" index seatsPerRow, and so on.
+ */
+public final class SeatBitmap {
+
+    public static final int WORD_BITS = 64;
+
+    private SeatBitmap() {
+    }
+
+    public static int wordCount(int totalSeats) {
+        return (totalSeats + WORD_BITS - 1) / WORD_BITS;
+    }
+
+    public static List<Long> emptyWords(int totalSeats) {
+        List<Long> words = new ArrayList<>();
+        for (int i = 0; i < wordCount(totalSeats); i++) {
+            words.add(0L);
+        }
+        return words;
+    }
+
+    public static int seatIndex(String label, int seatsPerRow) {
+        if (label == null || label.isBlank()) {
+            throw new IllegalArgumentException("Invalid seat label");
+        }
+        String upper = label.trim().toUpperCase();
+        int split = 0;
+        int row = 0;
+        while (split < upper.length() && Character.isLetter(upper.charAt(split))) {
+            row = row * 26 + (upper.charAt(split) - 'A' + 1);
+            split++;
+        }
+        if (split == 0 || split == upper.length()) {
+            throw new IllegalArgumentException("Invalid seat label: " + label);
+        }
+        int col;
+        try {
+            col = Integer.parseInt(upper.substring(split));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid seat label: " + label);
+        }
+        if (col < 1 || col > seatsPerRow) {
+            throw new IllegalArgumentException("Invalid seat label: " + label);
+        }
+        return (row - 1) * seatsPerRow + (col - 1);
+    }
+
+    public static String seatLabel(int index, int seatsPerRow) {
+        int row = index / seatsPerRow + 1;
+        int col = index % seatsPerRow + 1;
+        StringBuilder letters = new StringBuilder();
+        while (row > 0) {
+            row--;
+            letters.insert(0, (char) ('A' + row % 26));
+            row /= 26;
+        }
+        return letters.toString() + col;
+    }
+
+    /**
+     * Groups seat indexes into one mask per word, keyed by word position.
+     */
+    public static Map<Integer, Long> masks(Collection<Integer> indexes) {
+        Map<Integer, Long> masks = new TreeMap<>();
+        for (int index : indexes) {
+            masks.merge(index / WORD_BITS, 1L << (index % WORD_BITS), (a, b) -> a | b);
+        }
+        return masks;
+    }
+
+    public static boolean isSet(List<Long> words, int index) {
+        int word = index / WORD_BITS;
+        if (words == null || word >= words.size() || words.get(word) == null) {
+            return false;
+        }
+        return (words.get(word) & (1L << (index % WORD_BITS))) != 0;
+    }
+
+    public static int countSet(List<Long> words) {
+        int count = 0;
+        if (words != null) {
+            for (Long word : words) {
+                if (word != null) {
+                    count += Long.bitCount(word);
+                }
+            }
+        }
+        return count;
+    }
+
+    public static List<String> decode(List<Long> words, int seatsPerRow) {
+        List<String> labels = new ArrayList<>();
+        if (words == null) {
+            return labels;
+        }
+        for (int w = 0; w < words.size(); w++) {
+            long word = words.get(w) != null ? words.get(w) : 0L;
+            while (word != 0) {
+                int bit = Long.numberOfTrailingZeros(word);
+                labels.add(seatLabel(w * WORD_BITS + bit, seatsPerRow));
+                word &= word - 1;
+            }
+        }
+        return labels;
+    }
+}
@@ -47,7 +47,7 @@ function displayMovies(movies, gridId) {
     grid.innerHTML = movies.map(movie => `
         <div class="movie-card animate-slide-up">
             <div class="movie-poster">
-                <img src="${movie.posterUrl}" alt="${movie.title}" onerror="this.src='https://via.placeholder.com/300x450?text=No+Image'">
+                <img src="/img/poster/${movie.id}?w=320" alt="${movie.title}" loading="lazy" onerror="this.src='https://via.placeholder.com/300x450?text=No+Image'">
                 <div class="movie-overlay">
                     <button onclick="viewMovie('${movie.id}')" class="btn-view">
                         <i class="fas fa-info-circle"></i> Details
@@ -4,6 +4,7 @@ let currentSchedule = null;
 let selectedSeats = [];
 let selectedRating = 0;
 let currentUser = null;
+let seatStream = null;
 
 document.addEventListener('DOMContentLoaded', async () => {
     const urlParams = new URLSearchParams(window.location.search);
@@ -53,7 +54,7 @@ function displayMovieDetail(movie) {
     
     detailDiv.innerHTML = `
         <div class="movie-poster-large">
-            <img src="${movie.posterUrl}" alt="${movie.title}" onerror="this.src='https://via.placeholder.com/400x600?text=No+Image'">
+            <img src="/img/poster/${movie.id}?w=780" alt="${movie.title}" onerror="this.src='https://via.placeholder.com/400x600?text=No+Image'">
         </div>
         <div class="movie-info-detail">
             <h1 class="movie-title-detail">${movie.title}</h1>
@@ -160,6 +161,7 @@ function openBookingModal(evt, schedule) {
 
     generateSeats(safeSchedule);
     updateBookingSummary();
+    watchSeats(safeSchedule.id);
     
     // Update schedule time info
     const scheduleInfo = `${formatDate(schedule.showDate)} - ${schedule.showTime} - ${schedule.theater}`;
@@ -171,6 +173,55 @@ function openBookingModal(evt, schedule) {
 function closeBookingModal() {
     document.getElementById('bookingModal').style.display = 'none';
     selectedSeats = [];
+    if (seatStream) {
+        seatStream.close();
+        seatStream = null;
+    }
+}
+
+// Live seat updates: one snapshot, then only the seats that changed
+function watchSeats(scheduleId) {
+    if (seatStream) {
+        seatStream.close();
+    }
+    seatStream = new EventSource(`${API_BASE_URL}/schedules/${scheduleId}/seats/stream`);
+
+    seatStream.addEventListener('snapshot', (event) => {
+        const snapshot = JSON.parse(event.data);
+        currentSchedule.bookedSeats = snapshot.bookedSeats || [];
+        document.querySelectorAll('#seatsContainer .seat').forEach(seat => {
+            setSeatBooked(seat.dataset.seat, currentSchedule.bookedSeats.includes(seat.dataset.seat));
+        });
+    });
+
+    seatStream.addEventListener('seats', (event) => {
+        const update = JSON.parse(event.data);
+        update.changes.forEach(change => {
+            const booked = change.change !== 'RELEASED';
+            change.seats.forEach(seatLabel => setSeatBooked(seatLabel, booked));
+        });
+    });
+}
+
+function setSeatBooked(seatLabel, booked) {
+    const seatElement = document.querySelector(`#seatsContainer [data-seat="${seatLabel}"]`);
+    if (!seatElement) return;
+
+    const bookedSeats = currentSchedule.bookedSeats.filter(s => s !== seatLabel);
+    if (booked) {
+        bookedSeats.push(seatLabel);
+    }
+    currentSchedule.bookedSeats = bookedSeats;
+
+    if (booked && selectedSeats.includes(seatLabel)) {
+        selectedSeats = selectedSeats.filter(s => s !== seatLabel);
+        updateBookingSummary();
+    }
+    if (!booked && selectedSeats.includes(seatLabel)) return;
+
+    seatElement.classList.remove('booked', 'available', 'selected');
+    seatElement.classList.add(booked ? 'booked' : 'available');
+    seatElement.setAttribute('onclick', `toggleSeat('${seatLabel}', ${booked})`);
 }
 
 function generateSeats(schedule) {
@@ -250,11 +301,17 @@ async function confirmBooking() {
     }
 
     try {
-        const response = await apiRequest('/bookings', {
+        let response = await apiRequest('/bookings', {
             method: 'POST',
             body: JSON.stringify(bookingData)
         });
 
+        // 202: the booking is queued on a busy show; wait for its outcome
+        while (response.success && response.data && response.data.status === 'PENDING') {
+            await new Promise(resolve => setTimeout(resolve, 1000));
+            response = await apiRequest(`/bookings/requests/${response.data.requestId}`);
+        }
+
         if (response.success) {
             showInlineNotice('Tiket berhasil dipesan! Cek email untuk konfirmasi.', 'success');
             closeBookingModal();
@@ -354,15 +411,25 @@ async function loadReviews(movieId) {
         const stats = await statsResponse.json();
         displayReviewStats(stats);
 
-        // Load reviews
-        const reviewsResponse = await fetch(`${API_BASE_URL}/reviews/movie/${movieId}`);
-        const reviews = await reviewsResponse.json();
-        displayReviews(reviews);
+        // Load the first page of reviews
+        const reviewsResponse = await fetch(`${API_BASE_URL}/reviews/movie/${movieId}?limit=10`);
+        const page = await reviewsResponse.json();
+        displayReviews(page.reviews, false, page.nextCursor);
     } catch (error) {
         console.error('Error loading reviews:', error);
     }
 }
 
+async function loadMoreReviews(cursor) {
+    try {
+        const response = await fetch(`${API_BASE_URL}/reviews/movie/${currentMovie.id}?limit=10&cursor=${encodeURIComponent(cursor)}`);
+        const page = await response.json();
+        displayReviews(page.reviews, true, page.nextCursor);
+    } catch (error) {
+        console.error('Error loading more reviews:', error);
+    }
+}
+
 function displayReviewStats(stats) {
     const averageRating = stats.averageRating || 0;
     const totalReviews = stats.totalReviews || 0;
@@ -380,7 +447,7 @@ function displayReviewStats(stats) {
     }
 }
 
-function displayReviews(reviews) {
+function displayReviews(reviews, append = false, nextCursor = null) {
     const reviewsList = document.getElementById('reviewsList');
     const addReviewSection = document.getElementById('addReviewSection');
 
@@ -393,12 +460,12 @@ function displayReviews(reviews) {
         `;
     }
 
-    if (reviews.length === 0) {
+    if (reviews.length === 0 && !append) {
         reviewsList.innerHTML = '<div class="no-reviews">No reviews yet. Be the first to review!</div>';
         return;
     }
 
-    reviewsList.innerHTML = reviews.map(review => {
+    const cards = reviews.map(review => {
         const userInitial = review.userName.charAt(0).toUpperCase();
         const canDelete = currentUser && (currentUser.id === review.userId || currentUser.role === 'ADMIN');
         const reviewDate = new Date(review.createdAt).toLocaleDateString('id-ID', {
@@ -436,6 +503,12 @@ function displayReviews(reviews) {
             </div>
         `;
     }).join('');
+
+    const loadMore = reviewsList.querySelector('.btn-load-more-reviews');
+    if (loadMore) loadMore.remove();
+    reviewsList.innerHTML = (append ? reviewsList.innerHTML : '') + cards + (nextCursor ? `
+        <button class="btn-load-more-reviews" onclick="loadMoreReviews('${nextCursor}')">Load more reviews</button>
+    ` : '');
 }
 
 function generateStars(rating) {
@@ -0,0 +1,192 @@
+package com.cinemox.config;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.query.parser.Part;
+import org.springframework.data.repository.query.parser.PartTree;
+import org.springframework.data.repository.support.Repositories;
+
+import java.lang.reflect.Method;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Explains every derived query method of every repository and fails on the
+ * ones whose winning plan is a collection scan.
+ *
+ * Runs against a local MongoDB (database cinemox_verify) with the indexes the
+ * app creates at startup, and is skipped when none is reachable. Argument
+ * values do not affect which index is chosen, so each parameter is bound to a
+ * placeholder of the property's type.
+ */
+@SpringBootTest(properties = {
+        "spring.data.mongodb.uri=" + QueryPlanVerifierTest.MONGODB_URI,
+        "spring.data.mongodb.database=cinemox_verify"
+})
+class QueryPlanVerifierTest {
+
+    static final String MONGODB_URI = "mongodb://localhost:27017/cinemox_verify";
+
+    // Repository.method entries that may scan: unanchored case-insensitive searches cannot use an index
+    private static final Set<String> COLLSCAN_ALLOWED = Set.of(
+            "MovieRepository.findByTitleContainingIgnoreCase");
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @BeforeAll
+    static void requireMongo() {
+        boolean reachable;
+        try (MongoClient client = MongoClients.create(MONGODB_URI + "?serverSelectionTimeoutMS=2000")) {
+            client.getDatabase("admin").runCommand(new Document("ping", 1));
+            reachable = true;
+        } catch (Exception e) {
+            reachable = false;
+        }
+        assumeTrue(reachable, "No MongoDB at " + MONGODB_URI + "; query plan check skipped");
+    }
+
+    @Test
+    void derivedQueriesUseAnIndex() {
+        List<String> scans = new ArrayList<>();
+        int checked = 0;
+        Repositories repositories = new Repositories(applicationContext);
+        QueryMapper queryMapper = new QueryMapper(mongoTemplate.getConverter());
+
+        for (Class<?> domainType : repositories) {
+            RepositoryInformation info = repositories.getRequiredRepositoryInformation(domainType);
+            MongoPersistentEntity<?> entity =
+                    mongoTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(domainType);
+
+            for (Method method : info.getQueryMethods()) {
+                String name = info.getRepositoryInterface().getSimpleName() + "." + method.getName();
+                PartTree tree;
+                try {
+                    tree = new PartTree(method.getName(), domainType);
+                } catch (Exception e) {
+                    System.out.println("Query plan check skipped " + name + ": " + e.getMessage());
+                    continue;
+                }
+
+                Query query = toQuery(tree);
+                Document filter = queryMapper.getMappedObject(query.getQueryObject(), entity);
+                Document sort = queryMapper.getMappedSort(query.getSortObject(), entity);
+                Document plan = mongoTemplate.getCollection(entity.getCollection())
+                        .find(filter)
+                        .sort(sort)
+                        .explain();
+                checked++;
+
+                if (containsStage(plan.get("queryPlanner"), "COLLSCAN")) {
+                    boolean allowed = COLLSCAN_ALLOWED.contains(name);
+                    System.out.println("Query plan " + (allowed ? "allowed " : "") + "COLLSCAN: " + name
+                            + " filter=" + filter.toJson() + " sort=" + sort.toJson());
+                    if (!allowed) {
+                        scans.add(name);
+                    }
+                }
+            }
+        }
+
+        System.out.println("Query plan check: " + checked + " queries, " + scans.size() + " collection scans");
+        assertTrue(scans.isEmpty(), "Queries without a usable index: " + String.join(", ", scans));
+    }
+
+    private Query toQuery(PartTree tree) {
+        List<Criteria> branches = new ArrayList<>();
+        for (PartTree.OrPart orPart : tree) {
+            List<Criteria> conditions = new ArrayList<>();
+            for (Part part : orPart) {
+                conditions.add(toCriteria(part));
+            }
+            branches.add(new Criteria().andOperator(conditions));
+        }
+
+        Query query = new Query(branches.size() == 1 ? branches.get(0) : new Criteria().orOperator(branches));
+        Sort sort = tree.getSort();
+        if (sort.isSorted()) {
+            query.with(sort);
+        }
+        return query;
+    }
+
+    private Criteria toCriteria(Part part) {
+        Criteria field = Criteria.where(part.getProperty().toDotPath());
+        Object sample = sample(part.getProperty().getLeafType());
+        return switch (part.getType()) {
+            case TRUE -> field.is(true);
+            case FALSE -> field.is(false);
+            case IS_NULL -> field.is(null);
+            case IS_NOT_NULL, EXISTS -> field.ne(null);
+            case BETWEEN -> field.gt(sample).lt(sample);
+            case BEFORE, LESS_THAN -> field.lt(sample);
+            case LESS_THAN_EQUAL -> field.lte(sample);
+            case AFTER, GREATER_THAN -> field.gt(sample);
+            case GREATER_THAN_EQUAL -> field.gte(sample);
+            case CONTAINING, LIKE, STARTING_WITH, ENDING_WITH, REGEX ->
+                    part.shouldIgnoreCase() == Part.IgnoreCaseType.NEVER ? field.regex("x") : field.regex("x", "i");
+            case IN -> field.in(sample);
+            case NOT_IN -> field.nin(sample);
+            case NEGATING_SIMPLE_PROPERTY -> field.ne(sample);
+            default -> field.is(sample);
+        };
+    }
+
+    private Object sample(Class<?> type) {
+        if (type == LocalDateTime.class) {
+            return LocalDateTime.now();
+        }
+        if (type == LocalDate.class) {
+            return LocalDate.now();
+        }
+        if (type == LocalTime.class) {
+            return LocalTime.NOON;
+        }
+        if (type == boolean.class || type == Boolean.class) {
+            return true;
+        }
+        if (Number.class.isAssignableFrom(type) || type.isPrimitive()) {
+            return 0;
+        }
+        return "x";
+    }
+
+    private boolean containsStage(Object node, String stage) {
+        if (node instanceof Document document) {
+            if (stage.equals(document.get("stage"))) {
+                return true;
+            }
+            // Only the chosen plan matters, not the rejected alternatives
+            return document.entrySet().stream()
+                    .filter(entry -> !"rejectedPlans".equals(entry.getKey()))
+                    .anyMatch(entry -> containsStage(entry.getValue(), stage));
+        }
+        if (node instanceof List<?> list) {
+            return list.stream().anyMatch(item -> containsStage(item, stage));
+        }
+        return false;
+    }
+}